@@ -0,0 +1,22 @@
+package rithmomachia;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, always adding the GC profiler so that every result comes with
+ * its allocation rate ({@code gc.alloc.rate.norm} is the number of bytes allocated per operation).
+ * <p>
+ * Build with {@code mvn package} in the {@code benchmarks} directory, then run
+ * {@code java -jar target/benchmarks.jar [JMH options] [benchmark regex]}.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package rithmomachia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Board#capture(long, int, Piece.Color)} for each capture style, on the positions used by {@code GameTester}.
+ * Each operation makes the capture and puts the captured piece back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaptureBenchmark {
+    @Param({"ENCOUNTER", "ERUPTION", "DECEIT", "TWO_SIDED_SIEGE", "THREE_SIDED_SIEGE", "FOUR_SIDED_SIEGE"})
+    public BoardGame.CaptureResult style;
+
+    private Board board;
+    private Piece[][] pieces;
+    private Piece.Color color;
+    private Piece target;
+    private int targetSquare;
+    private long capturers;
+
+    @Setup
+    public void setUp() {
+        pieces = new Piece[16][8];
+        capturers = 0;
+        color = Piece.Color.BLACK;
+        switch (style) {
+            case ENCOUNTER -> {
+                this.target(11, 5, Piece.of(9, Piece.Shape.TRIANGLE, Piece.Color.WHITE));
+                this.capturer(10, 5, Piece.of(9, Piece.Shape.CIRCLE, Piece.Color.BLACK));
+            }
+            case ERUPTION -> {
+                this.target(12, 3, Piece.of(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE));
+                this.capturer(11, 3, Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK));
+            }
+            case DECEIT -> {
+                color = Piece.Color.WHITE;
+                this.target(0, 1, Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK));
+                this.capturer(0, 0, Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE));
+                this.capturer(0, 2, Piece.of(2, Piece.Shape.SQUARE, Piece.Color.WHITE));
+            }
+            case TWO_SIDED_SIEGE -> {
+                this.target(0, 0, Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.WHITE));
+                this.capturer(0, 1, Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK));
+                this.capturer(1, 0, Piece.of(2, Piece.Shape.SQUARE, Piece.Color.BLACK));
+            }
+            case THREE_SIDED_SIEGE -> {
+                this.target(0, 1, Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.WHITE));
+                this.capturer(0, 0, Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK));
+                this.capturer(0, 2, Piece.of(2, Piece.Shape.SQUARE, Piece.Color.BLACK));
+                this.capturer(1, 1, Piece.of(2, Piece.Shape.CIRCLE, Piece.Color.BLACK));
+            }
+            case FOUR_SIDED_SIEGE -> {
+                this.target(3, 3, Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.WHITE));
+                this.capturer(3, 2, Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK));
+                this.capturer(3, 4, Piece.of(2, Piece.Shape.SQUARE, Piece.Color.BLACK));
+                this.capturer(2, 3, Piece.of(2, Piece.Shape.CIRCLE, Piece.Color.BLACK));
+                this.capturer(4, 3, Piece.of(2, Piece.Shape.CIRCLE, Piece.Color.BLACK));
+            }
+            default -> throw new IllegalArgumentException("Not a capture style: " + style);
+        }
+        board = new Board(Integer.MAX_VALUE, pieces);
+        if (board.tryCapture(capturers, targetSquare, color) != style) {
+            throw new IllegalStateException("The " + style + " position does not capture by " + style);
+        }
+        board.getPosition().put(targetSquare, target);
+    }
+
+    private void target(int i, int j, Piece piece) {
+        pieces[i][j] = piece;
+        target = piece;
+        targetSquare = Position.square(i, j);
+    }
+
+    private void capturer(int i, int j, Piece piece) {
+        pieces[i][j] = piece;
+        capturers = Capture.withCapturer(capturers, Position.square(i, j));
+    }
+
+    @Benchmark
+    public boolean captureAndRestore() {
+        boolean captured = board.capture(capturers, targetSquare, color);
+        board.getPosition().put(targetSquare, target);
+        return captured;
+    }
+}
@@ -0,0 +1,59 @@
+package rithmomachia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Board#enumerateCaptures(Piece.Color, long[])} on the positions of random games, the way rollouts call it.
+ * Each operation lists the captures of the color to move in the next of {@value #POSITIONS} positions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumerateCapturesBenchmark {
+    private static final int POSITIONS = 1024;
+    private static final int PLIES_PER_GAME = 64;
+
+    private final Board[] boards = new Board[POSITIONS];
+    private final Piece.Color[] colors = new Piece.Color[POSITIONS];
+    private final long[] captures = new long[CaptureGenerator.MAX_CAPTURES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(24);
+        RandomPolicy policy = new RandomPolicy();
+        Board board = null;
+        Piece.Color color = Piece.Color.BLACK;
+        for (int position = 0; position < POSITIONS; position++) {
+            if (position % PLIES_PER_GAME == 0 || board.gameEnded()) {
+                board = new Board(Integer.MAX_VALUE);
+                color = Piece.Color.BLACK;
+            }
+            boards[position] = new Board(board);
+            colors[position] = color;
+            Ply.make(board, policy.choosePly(board, color, random));
+            color = color.opposite();
+        }
+    }
+
+    @Benchmark
+    public int enumerateCaptures() {
+        next = next + 1 & POSITIONS - 1;
+        return boards[next].enumerateCaptures(colors[next], captures);
+    }
+}
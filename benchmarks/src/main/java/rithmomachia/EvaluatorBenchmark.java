@@ -0,0 +1,71 @@
+package rithmomachia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluations per second of {@link Evaluator} on the starting board with every weight in use. Each operation of
+ * {@code makeAndEvaluate} makes one of the first moves of black, evaluates and takes the move back, as a search leaf
+ * does; {@code rescan} builds a new evaluator, which counts the whole board the way a non-incremental evaluation
+ * would.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    private static final EvaluationWeights WEIGHTS = new EvaluationWeights(256, 1, 64, 16, 128);
+
+    private final int[] moves = new int[Move.MAX_MOVES];
+    private Board board;
+    private Evaluator evaluator;
+    private int count;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        board = new Board(5);
+        evaluator = new Evaluator(board, WEIGHTS);
+        count = board.generateMoves(Piece.Color.BLACK, moves);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        evaluator.detach();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return evaluator.evaluate(Piece.Color.BLACK);
+    }
+
+    @Benchmark
+    public int makeAndEvaluate() {
+        board.makeMove(moves[next]);
+        int score = evaluator.evaluate(Piece.Color.BLACK);
+        board.unmakeMove();
+        next = next + 1 == count ? 0 : next + 1;
+        return score;
+    }
+
+    @Benchmark
+    public int rescan() {
+        Evaluator fresh = new Evaluator(board, WEIGHTS);
+        fresh.detach();
+        return fresh.evaluate(Piece.Color.BLACK);
+    }
+}
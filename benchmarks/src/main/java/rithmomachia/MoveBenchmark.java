@@ -0,0 +1,57 @@
+package rithmomachia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Board#move(int, int, int, BoardGame.Direction, Piece.Color)} in every direction. Each operation moves a
+ * circle one square away from the middle of an empty board and back.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+    private static final int X = 4;
+    private static final int Y = 9;
+
+    @Param({"UP", "DOWN", "LEFT", "RIGHT", "DIAGONALUPLEFT", "DIAGONALUPRIGHT", "DIAGONALDOWNLEFT", "DIAGONALDOWNRIGHT"})
+    public BoardGame.Direction direction;
+
+    private Board board;
+    private BoardGame.Direction back;
+    private int movedX;
+    private int movedY;
+
+    @Setup
+    public void setUp() {
+        Piece[][] pieces = new Piece[16][8];
+        pieces[16 - Y][X - 1] = Piece.of(9, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board = new Board(1, pieces);
+        movedX = X + direction.getColumnStep();
+        movedY = Y - direction.getRowStep();
+        for (BoardGame.Direction candidate : BoardGame.Direction.ALL) {
+            if (candidate.getRowStep() == -direction.getRowStep() && candidate.getColumnStep() == -direction.getColumnStep()) {
+                back = candidate;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean moveAndBack() {
+        return board.move(X, Y, 1, direction, Piece.Color.BLACK) & board.move(movedX, movedY, 1, back, Piece.Color.BLACK);
+    }
+}
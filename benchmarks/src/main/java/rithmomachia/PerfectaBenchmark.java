@@ -0,0 +1,44 @@
+package rithmomachia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bookkeeping of a full Perfecta: looking up the variants without and with a component, and the movement test used
+ * by move generation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerfectaBenchmark {
+    private Perfecta perfecta;
+
+    @Setup
+    public void setUp() {
+        perfecta = Perfecta.of(Piece.Color.WHITE);
+    }
+
+    @Benchmark
+    public int captureAndRestore() {
+        Perfecta captured = perfecta.without(2);
+        return captured.getNumber() + captured.with(perfecta.getComponent(2)).getNumber();
+    }
+
+    @Benchmark
+    public boolean validMovement() {
+        return perfecta.validMovement(2);
+    }
+}
@@ -0,0 +1,99 @@
+package rithmomachia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic capture checks of {@link Piece}, with plain pieces only, with a Perfecta being captured, and with a
+ * Perfecta capturing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+    @Param({"PIECE", "PERFECTA_TARGET", "PERFECTA_CAPTURER"})
+    public String operands;
+
+    private Piece eruptionTarget;
+    private int eruptionTargetSquare;
+    private Piece eruptionCapturer;
+    private int eruptionCapturerSquare;
+    private Piece deceitTarget;
+    private int deceitTargetSquare;
+    private Piece deceitCapturer1;
+    private int deceitSquare1;
+    private Piece deceitCapturer2;
+    private int deceitSquare2;
+
+    @Setup
+    public void setUp() {
+        switch (operands) {
+            case "PIECE" -> {
+                eruptionTarget = Piece.of(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+                eruptionTargetSquare = Position.square(12, 3);
+                eruptionCapturer = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+                eruptionCapturerSquare = Position.square(11, 3);
+                deceitTarget = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+                deceitTargetSquare = Position.square(0, 1);
+                deceitCapturer1 = Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+                deceitSquare1 = Position.square(0, 0);
+                deceitCapturer2 = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.WHITE);
+                deceitSquare2 = Position.square(0, 2);
+            }
+            case "PERFECTA_TARGET" -> {
+                // 16 erupts into 64 at a distance of 4, and 20 + 5 makes 25
+                eruptionTarget = Perfecta.of(Piece.Color.WHITE);
+                eruptionTargetSquare = Position.square(14, 1);
+                eruptionCapturer = Piece.of(16, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+                eruptionCapturerSquare = Position.square(11, 1);
+                deceitTarget = Perfecta.of(Piece.Color.WHITE);
+                deceitTargetSquare = Position.square(14, 1);
+                deceitCapturer1 = Piece.of(20, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+                deceitSquare1 = Position.square(13, 1);
+                deceitCapturer2 = Piece.of(5, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+                deceitSquare2 = Position.square(15, 1);
+            }
+            case "PERFECTA_CAPTURER" -> {
+                // The 16 component erupts into 64 at a distance of 4, and the 36 component and 25 make 61
+                eruptionTarget = Piece.of(64, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+                eruptionTargetSquare = Position.square(11, 1);
+                eruptionCapturer = Perfecta.of(Piece.Color.WHITE);
+                eruptionCapturerSquare = Position.square(14, 1);
+                deceitTarget = Piece.of(61, Piece.Shape.SQUARE, Piece.Color.BLACK);
+                deceitTargetSquare = Position.square(5, 5);
+                deceitCapturer1 = Perfecta.of(Piece.Color.WHITE);
+                deceitSquare1 = Position.square(5, 4);
+                deceitCapturer2 = Piece.of(25, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+                deceitSquare2 = Position.square(5, 6);
+            }
+            default -> throw new IllegalArgumentException("Unknown operands: " + operands);
+        }
+        if (eruptionTarget.checkEruptionCapture(eruptionTargetSquare, eruptionCapturer, eruptionCapturerSquare) == -2 || deceitTarget.checkDeceitCapture(deceitTargetSquare, deceitCapturer1, deceitSquare1, deceitCapturer2, deceitSquare2) == -2) {
+            throw new IllegalStateException("The " + operands + " operands do not capture");
+        }
+    }
+
+    @Benchmark
+    public int checkEruptionCapture() {
+        return eruptionTarget.checkEruptionCapture(eruptionTargetSquare, eruptionCapturer, eruptionCapturerSquare);
+    }
+
+    @Benchmark
+    public int checkDeceitCapture() {
+        return deceitTarget.checkDeceitCapture(deceitTargetSquare, deceitCapturer1, deceitSquare1, deceitCapturer2, deceitSquare2);
+    }
+}
@@ -0,0 +1,153 @@
+package rithmomachia;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ray and neighborhood tables of {@link Position} against the loops they replaced, on the starting board.
+ * Each operation tests one of {@value #QUERIES} random queries in turn; the {@code loop} benchmarks are copies of the
+ * code before the tables: rays and paths built square by square, neighborhoods shifted out of the square's bit, and
+ * the first piece of a ray found by walking coordinates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RayBenchmark {
+    private static final int QUERIES = 1024;
+    private static final long NOT_FIRST_COLUMN = 0xFEFEFEFEFEFEFEFEL;
+    private static final long NOT_LAST_COLUMN = 0x7F7F7F7F7F7F7F7FL;
+
+    private final int[] from = new int[QUERIES];
+    private final int[] to = new int[QUERIES];
+    private final BoardGame.Direction[] directions = new BoardGame.Direction[QUERIES];
+    private final int[] amounts = new int[QUERIES];
+    private Position position;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        position = new Board(5).getPosition();
+        SplittableRandom random = new SplittableRandom(22);
+        for (int query = 0; query < QUERIES; query++) {
+            from[query] = random.nextInt(Position.SQUARES);
+            directions[query] = BoardGame.Direction.values()[random.nextInt(8)];
+            amounts[query] = 1 + random.nextInt(3);
+            // Paths along a line, so that the squares between are looked at
+            int distance = 1 + random.nextInt(6);
+            int i = Position.row(from[query]) + directions[query].getRowStep() * distance;
+            int j = Position.column(from[query]) + directions[query].getColumnStep() * distance;
+            to[query] = Position.onBoard(i, j) ? Position.square(i, j) : random.nextInt(Position.SQUARES);
+        }
+    }
+
+    private int next() {
+        next = next + 1 & QUERIES - 1;
+        return next;
+    }
+
+    @Benchmark
+    public boolean rayClear() {
+        int query = this.next();
+        return position.isRayClear(from[query], directions[query], amounts[query]);
+    }
+
+    @Benchmark
+    public boolean loopRayClear() {
+        int query = this.next();
+        BoardGame.Direction direction = directions[query];
+        int amount = amounts[query];
+        int i = Position.row(from[query]);
+        int j = Position.column(from[query]);
+        if (!Position.onBoard(i + direction.getRowStep() * amount, j + direction.getColumnStep() * amount)) {
+            return false;
+        }
+        int step = direction.getRowStep() * Position.COLUMNS + direction.getColumnStep();
+        long lo = 0;
+        long hi = 0;
+        for (int square = from[query] + step, distance = 1; distance <= amount; square += step, distance++) {
+            if (square < 64) {
+                lo |= 1L << square;
+            } else {
+                hi |= 1L << square;
+            }
+        }
+        return position.isEmpty(lo, hi);
+    }
+
+    @Benchmark
+    public boolean pathClear() {
+        int query = this.next();
+        return position.isPathClear(from[query], to[query]);
+    }
+
+    @Benchmark
+    public boolean loopPathClear() {
+        int query = this.next();
+        int distanceI = Position.row(to[query]) - Position.row(from[query]);
+        int distanceJ = Position.column(to[query]) - Position.column(from[query]);
+        if (distanceI != 0 && distanceJ != 0 && Math.abs(distanceI) != Math.abs(distanceJ)) {
+            return true;
+        }
+        int step = Integer.signum(distanceI) * Position.COLUMNS + Integer.signum(distanceJ);
+        long lo = 0;
+        long hi = 0;
+        for (int square = from[query] + step; square != to[query]; square += step) {
+            if (square < 64) {
+                lo |= 1L << square;
+            } else {
+                hi |= 1L << square;
+            }
+        }
+        return position.isEmpty(lo, hi);
+    }
+
+    @Benchmark
+    public long neighbors() {
+        int square = from[this.next()];
+        return Position.orthogonalNeighbors(square, 0) ^ Position.orthogonalNeighbors(square, 1) ^ Position.diagonalNeighbors(square, 0) ^ Position.diagonalNeighbors(square, 1);
+    }
+
+    @Benchmark
+    public long loopNeighbors() {
+        int square = from[this.next()];
+        long lo = square < 64 ? 1L << square : 0;
+        long hi = square < 64 ? 0 : 1L << square;
+        long sidesLo = (lo << 1 & NOT_FIRST_COLUMN) | (lo >>> 1 & NOT_LAST_COLUMN);
+        long sidesHi = (hi << 1 & NOT_FIRST_COLUMN) | (hi >>> 1 & NOT_LAST_COLUMN);
+        return (sidesLo | lo << 8 | lo >>> 8 | hi << 56) ^ (sidesHi | hi << 8 | hi >>> 8 | lo >>> 56)
+                ^ (sidesLo << 8 | sidesLo >>> 8 | sidesHi << 56) ^ (sidesHi << 8 | sidesHi >>> 8 | sidesLo >>> 56);
+    }
+
+    @Benchmark
+    public int firstOccupied() {
+        int query = this.next();
+        return position.firstOccupied(from[query], directions[query]);
+    }
+
+    @Benchmark
+    public int loopFirstOccupied() {
+        int query = this.next();
+        BoardGame.Direction direction = directions[query];
+        int i = Position.row(from[query]) + direction.getRowStep();
+        int j = Position.column(from[query]) + direction.getColumnStep();
+        while (Position.onBoard(i, j) && !position.isOccupied(Position.square(i, j))) {
+            i += direction.getRowStep();
+            j += direction.getColumnStep();
+        }
+        return Position.onBoard(i, j) ? Position.square(i, j) : -1;
+    }
+}
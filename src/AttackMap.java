@@ -0,0 +1,139 @@
+/**
+ * The captures available against every piece of a {@link Board}, kept up to date as the board changes.
+ * The map listens to the board: each change marks the pieces whose captures may depend on the changed square, which are
+ * the piece on the square itself, the first piece along each of the 8 rays from it (whose paths it may open or block),
+ * its neighbors (Deceit and the sieges), and the enemy pieces it may capture by Encounter or Eruption from anywhere.
+ * Marked pieces are looked at again with a {@link CaptureGenerator} on the next query, so a query after a move
+ * costs a few targets instead of the whole board, and queries between changes are O(1).
+ * <p>
+ * The captures are those available without moving first. A map keeps scratch space, so it must only be used by the
+ * thread that changes its board.
+ */
+public class AttackMap implements BoardListener {
+    private final Board board;
+    private final Position position;
+    private final CaptureGenerator generator = new CaptureGenerator();
+    private final long[] scratch = new long[CaptureGenerator.MAX_CAPTURES];
+    private final int[] counts = new int[Position.SQUARES];
+    private final long[] threatened = new long[2 * Piece.Color.values().length];
+    private final int[] totals = new int[Piece.Color.values().length];
+    private final long[] dirty = new long[2];
+
+    /**
+     * Creates the map of a board and starts listening to it.
+     *
+     * @param board The board to follow
+     */
+    public AttackMap(Board board) {
+        this.board = board;
+        this.position = board.getPosition();
+        dirty[0] = position.occupied(0);
+        dirty[1] = position.occupied(1);
+        board.addListener(this);
+    }
+
+    /**
+     * Stops following the board. The map must not be used afterwards.
+     */
+    public void detach() {
+        board.removeListener(this);
+    }
+
+    @Override
+    public void squareChanged(int square, Piece piece) {
+        dirty[square >>> 6] |= 1L << square;
+        for (BoardGame.Direction direction : BoardGame.Direction.ALL) {
+            int first = position.firstOccupied(square, direction);
+            if (first >= 0) {
+                dirty[first >>> 6] |= 1L << first;
+            }
+        }
+        Piece.Color enemy = piece.getColor().opposite();
+        long numbers = CaptureTable.numbers(piece);
+        long targets = numbers | CaptureTable.eruptedBy(numbers);
+        for (int half = 0; half < 2; half++) {
+            long neighbors = (Position.orthogonalNeighbors(square, half) | Position.diagonalNeighbors(square, half)) & position.occupied(half);
+            long reachable = numbers == 0 ? position.occupied(enemy, half) : position.occupiedByNumbers(enemy, targets, half) | position.occupiedByUnindexedNumbers(enemy, half);
+            dirty[half] |= neighbors | reachable;
+        }
+    }
+
+    /**
+     * Looks again at the pieces marked by the changes since the last query.
+     */
+    private void update() {
+        for (int half = 0; half < 2; half++) {
+            while (dirty[half] != 0) {
+                int square = half << 6 | Long.numberOfTrailingZeros(dirty[half]);
+                dirty[half] &= dirty[half] - 1;
+                long bit = 1L << square;
+                for (Piece.Color owner : Piece.Color.values()) {
+                    if ((threatened[owner.ordinal() << 1 | half] & bit) != 0) {
+                        threatened[owner.ordinal() << 1 | half] &= ~bit;
+                        totals[owner.opposite().ordinal()] -= counts[square];
+                    }
+                }
+                Piece piece = position.get(square);
+                counts[square] = piece == null ? 0 : generator.generate(position, piece.getColor().opposite(), square, scratch, 0);
+                if (counts[square] > 0) {
+                    threatened[piece.getColor().ordinal() << 1 | half] |= bit;
+                    totals[piece.getColor().opposite().ordinal()] += counts[square];
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of captures available against the piece on a square.
+     *
+     * @param square The square of the piece
+     * @return The number of captures of the piece, or 0 for an empty square
+     */
+    public int getCaptures(int square) {
+        this.update();
+        return counts[square];
+    }
+
+    /**
+     * Get one word of the mask of the pieces of one color that can be captured.
+     *
+     * @param owner The color of the threatened pieces
+     * @param half  0 for rows 0-7, 1 for rows 8-15
+     * @return The squares of the threatened pieces
+     */
+    public long getThreatened(Piece.Color owner, int half) {
+        this.update();
+        return threatened[owner.ordinal() << 1 | half];
+    }
+
+    /**
+     * Get the number of captures one color can make.
+     *
+     * @param color The capturing color
+     * @return The number of captures, the same as {@link CaptureGenerator#generate(Board, Piece.Color, long[])} returns
+     */
+    public int getCaptureCount(Piece.Color color) {
+        this.update();
+        return totals[color.ordinal()];
+    }
+
+    /**
+     * Lists the captures of one color, looking only at the pieces the map knows to be threatened.
+     *
+     * @param color    The capturing color
+     * @param captures The buffer the captures are written to, encoded by {@link Capture}
+     * @return The number of captures, in the order {@link CaptureGenerator} lists them
+     */
+    public int generate(Piece.Color color, long[] captures) {
+        this.update();
+        int count = 0;
+        for (int half = 0; half < 2; half++) {
+            long targets = threatened[color.opposite().ordinal() << 1 | half];
+            while (targets != 0) {
+                count = generator.generate(position, color, half << 6 | Long.numberOfTrailingZeros(targets), captures, count);
+                targets &= targets - 1;
+            }
+        }
+        return count;
+    }
+}
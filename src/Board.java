@@ -1,6 +1,5 @@
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.Scanner;
 
 /**
  * Class that represents the board state of the game.
@@ -9,10 +8,22 @@ import java.util.Scanner;
  * @author Yann Quinard
  */
 public class Board implements BoardGame {
+    private static final int UNDO_CAPACITY = 256;
+    private static final int UNDO_MOVE = 0;
+    private static final int UNDO_REMOVE = 1;
+    private static final int UNDO_COMPONENT = 2;
+    private static final int UNDO_RANSOM = 3;
+    private static final Piece.Color[] COLORS = Piece.Color.values();
+
     private final int winCon;
-    private final Piece[][] board;
+    private final Position position;
+    private final CaptureGenerator captureGenerator = new CaptureGenerator();
     private int numBlackCaptured = 0;
     private int numWhiteCaptured = 0;
+    private RansomPolicy ransomPolicy = RansomPolicy.DECLINE;
+    private long[] undoStack = new long[UNDO_CAPACITY];
+    private Piece[] undoPieces = new Piece[UNDO_CAPACITY];
+    private int undoSize = 0;
 
     /**
      * Creates a new game with the given board state.
@@ -22,7 +33,7 @@ public class Board implements BoardGame {
      */
     public Board(int winCon, Piece[][] board) {
         this.winCon = winCon;
-        this.board = board;
+        this.position = new Position(board);
     }
 
     /**
@@ -31,59 +42,82 @@ public class Board implements BoardGame {
      * @param winCon The number of captures required to win the game
      */
     public Board(int winCon) {
-        board = new Piece[16][8];
-        this.winCon = winCon;
+        this(winCon, startingLayout());
+    }
+
+    /**
+     * Creates an independent copy of another board, with the same pieces, capture counters and ransom policy.
+     * The undo history is not copied.
+     *
+     * @param other The board to copy
+     */
+    public Board(Board other) {
+        this.winCon = other.winCon;
+        this.position = new Position(other.position);
+        this.numBlackCaptured = other.numBlackCaptured;
+        this.numWhiteCaptured = other.numWhiteCaptured;
+        this.ransomPolicy = other.ransomPolicy;
+    }
+
+    /**
+     * Creates the default board state.
+     *
+     * @return The starting pieces indexed {@code [i][j]}
+     */
+    private static Piece[][] startingLayout() {
+        Piece[][] board = new Piece[16][8];
         // Black Pieces:
-        board[0][0] = new Piece(49, Piece.Shape.SQUARE, Piece.Color.BLACK, 0, 0);
-        board[0][1] = new Piece(121, Piece.Shape.SQUARE, Piece.Color.BLACK, 0, 1);
-        board[0][6] = new Piece(225, Piece.Shape.SQUARE, Piece.Color.BLACK, 0, 6);
-        board[0][7] = new Piece(361, Piece.Shape.SQUARE, Piece.Color.BLACK, 0, 7);
-        board[1][0] = new Piece(28, Piece.Shape.SQUARE, Piece.Color.BLACK, 1, 0);
-        board[1][1] = new Piece(66, Piece.Shape.SQUARE, Piece.Color.BLACK, 1, 1);
-        board[1][2] = new Piece(36, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 1, 2);
-        board[1][3] = new Piece(30, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 1, 3);
-        board[1][4] = new Piece(56, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 1, 4);
-        board[1][5] = new Piece(64, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 1, 5);
-        board[1][6] = new Piece(120, Piece.Shape.SQUARE, Piece.Color.BLACK, 1, 6);
-        board[1][7] = new Perfecta(Piece.Color.BLACK, 1, 7);
-        board[2][0] = new Piece(16, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 2, 0);
-        board[2][1] = new Piece(12, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 2, 1);
-        board[2][2] = new Piece(9, Piece.Shape.CIRCLE, Piece.Color.BLACK, 2, 2);
-        board[2][3] = new Piece(25, Piece.Shape.CIRCLE, Piece.Color.BLACK, 2, 3);
-        board[2][4] = new Piece(49, Piece.Shape.CIRCLE, Piece.Color.BLACK, 2, 4);
-        board[2][5] = new Piece(81, Piece.Shape.CIRCLE, Piece.Color.BLACK, 2, 5);
-        board[2][6] = new Piece(90, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 2, 6);
-        board[2][7] = new Piece(100, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 2, 7);
-        board[3][2] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.BLACK, 3, 2);
-        board[3][3] = new Piece(5, Piece.Shape.CIRCLE, Piece.Color.BLACK, 3, 3);
-        board[3][4] = new Piece(7, Piece.Shape.CIRCLE, Piece.Color.BLACK, 3, 4);
-        board[3][5] = new Piece(9, Piece.Shape.CIRCLE, Piece.Color.BLACK, 3, 5);
+        board[0][0] = Piece.of(49, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        board[0][1] = Piece.of(121, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        board[0][6] = Piece.of(225, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        board[0][7] = Piece.of(361, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        board[1][0] = Piece.of(28, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        board[1][1] = Piece.of(66, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        board[1][2] = Piece.of(36, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[1][3] = Piece.of(30, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[1][4] = Piece.of(56, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[1][5] = Piece.of(64, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[1][6] = Piece.of(120, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        board[1][7] = Perfecta.of(Piece.Color.BLACK);
+        board[2][0] = Piece.of(16, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[2][1] = Piece.of(12, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[2][2] = Piece.of(9, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board[2][3] = Piece.of(25, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board[2][4] = Piece.of(49, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board[2][5] = Piece.of(81, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board[2][6] = Piece.of(90, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[2][7] = Piece.of(100, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        board[3][2] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board[3][3] = Piece.of(5, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board[3][4] = Piece.of(7, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        board[3][5] = Piece.of(9, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Pieces:
-        board[15][0] = new Piece(289, Piece.Shape.SQUARE, Piece.Color.WHITE, 15, 0);
-        board[15][1] = new Piece(169, Piece.Shape.SQUARE, Piece.Color.WHITE, 15, 1);
-        board[15][6] = new Piece(81, Piece.Shape.SQUARE, Piece.Color.WHITE, 15, 6);
-        board[15][7] = new Piece(25, Piece.Shape.SQUARE, Piece.Color.WHITE, 15, 7);
-        board[14][0] = new Piece(153, Piece.Shape.SQUARE, Piece.Color.WHITE, 14, 0);
-        board[14][1] = new Perfecta(Piece.Color.WHITE, 14, 1);
-        board[14][2] = new Piece(49, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 14, 2);
-        board[14][3] = new Piece(42, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 14, 3);
-        board[14][4] = new Piece(20, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 14, 4);
-        board[14][5] = new Piece(25, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 14, 5);
-        board[14][6] = new Piece(45, Piece.Shape.SQUARE, Piece.Color.WHITE, 14, 6);
-        board[14][7] = new Piece(15, Piece.Shape.SQUARE, Piece.Color.WHITE, 14, 7);
-        board[13][0] = new Piece(81, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 13, 0);
-        board[13][1] = new Piece(72, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 13, 1);
-        board[13][2] = new Piece(64, Piece.Shape.CIRCLE, Piece.Color.WHITE, 13, 2);
-        board[13][3] = new Piece(36, Piece.Shape.CIRCLE, Piece.Color.WHITE, 13, 3);
-        board[13][4] = new Piece(16, Piece.Shape.CIRCLE, Piece.Color.WHITE, 13, 4);
-        board[13][5] = new Piece(4, Piece.Shape.CIRCLE, Piece.Color.WHITE, 13, 5);
-        board[13][6] = new Piece(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 13, 6);
-        board[13][7] = new Piece(9, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 11, 5);
-        board[12][2] = new Piece(8, Piece.Shape.CIRCLE, Piece.Color.WHITE, 12, 2);
-        board[12][3] = new Piece(6, Piece.Shape.CIRCLE, Piece.Color.WHITE, 12, 3);
-        board[12][4] = new Piece(4, Piece.Shape.CIRCLE, Piece.Color.WHITE, 12, 4);
-        board[12][5] = new Piece(2, Piece.Shape.CIRCLE, Piece.Color.WHITE, 12, 5);
+        board[15][0] = Piece.of(289, Piece.Shape.SQUARE, Piece.Color.WHITE);
+        board[15][1] = Piece.of(169, Piece.Shape.SQUARE, Piece.Color.WHITE);
+        board[15][6] = Piece.of(81, Piece.Shape.SQUARE, Piece.Color.WHITE);
+        board[15][7] = Piece.of(25, Piece.Shape.SQUARE, Piece.Color.WHITE);
+        board[14][0] = Piece.of(153, Piece.Shape.SQUARE, Piece.Color.WHITE);
+        board[14][1] = Perfecta.of(Piece.Color.WHITE);
+        board[14][2] = Piece.of(49, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[14][3] = Piece.of(42, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[14][4] = Piece.of(20, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[14][5] = Piece.of(25, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[14][6] = Piece.of(45, Piece.Shape.SQUARE, Piece.Color.WHITE);
+        board[14][7] = Piece.of(15, Piece.Shape.SQUARE, Piece.Color.WHITE);
+        board[13][0] = Piece.of(81, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[13][1] = Piece.of(72, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[13][2] = Piece.of(64, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        board[13][3] = Piece.of(36, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        board[13][4] = Piece.of(16, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        board[13][5] = Piece.of(4, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        board[13][6] = Piece.of(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[13][7] = Piece.of(9, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        board[12][2] = Piece.of(8, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        board[12][3] = Piece.of(6, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        board[12][4] = Piece.of(4, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        board[12][5] = Piece.of(2, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+        return board;
     }
 
     /**
@@ -97,166 +131,229 @@ public class Board implements BoardGame {
      * @return {@code true} if the movement was successful and {@code false} if the move was invalid
      */
     public boolean move(int pieceX, int pieceY, int amount, BoardGame.Direction direction, Piece.Color color) {
+        return this.tryMove(pieceX, pieceY, amount, direction, color) == MoveResult.VALID;
+    }
+
+    /**
+     * Moves a piece by a certain amount, updating the board state.
+     *
+     * @param pieceX    The x-coordinate of the piece to be moved
+     * @param pieceY    The y-coordinate of the piece to be moved
+     * @param amount    The amount the piece should be moved by
+     * @param direction The direction the piece should be moved in
+     * @param color     The color the piece to be moved should be
+     * @return {@link MoveResult#VALID} if the piece was moved, or the reason the move was rejected
+     */
+    public MoveResult tryMove(int pieceX, int pieceY, int amount, BoardGame.Direction direction, Piece.Color color) {
         int x = pieceX - 1;
         int y = 15 - (pieceY - 1);
         if (y < 0 || y > 15) {
-            System.out.println("Invalid move: Y coordinate is out of bounds!");
-            return false;
+            return MoveResult.Y_OUT_OF_BOUNDS;
         } else if (x < 0 || x > 7) {
-            System.out.println("Invalid move: X coordinate is out of bounds!");
-            return false;
-        } else if (Objects.isNull(board[y][x])) {
-            System.out.println("Invalid move: This piece does not exist!");
-            return false;
+            return MoveResult.X_OUT_OF_BOUNDS;
         }
-        Piece piece = board[y][x];
-        if (piece.getColor() != color) {
-            System.out.println("Invalid move: No Cheating!");
-            return false;
+        int from = Position.square(y, x);
+        Piece piece = position.get(from);
+        if (Objects.isNull(piece)) {
+            return MoveResult.NO_PIECE;
+        } else if (piece.getColor() != color) {
+            return MoveResult.WRONG_COLOR;
+        } else if (!piece.validMovement(amount)) {
+            return MoveResult.INVALID_AMOUNT;
         }
-
-        if (!piece.validMovement(amount)) {
-            System.out.println("Invalid move: " + piece + " cannot move " + amount + " spaces");
-            return false;
+        int toI = y + direction.getRowStep() * amount;
+        int toJ = x + direction.getColumnStep() * amount;
+        if (!Position.onBoard(toI, toJ)) {
+            return MoveResult.NO_SPACE;
+        } else if (!position.isRayClear(from, direction, amount)) {
+            return MoveResult.PATH_BLOCKED;
         }
-        switch (direction) {
-            case UP -> {
-                if (y - amount < 0) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y - distance][x])) {
-                        System.out.println("Invalid move: The path is not clear!");
-                        return false;
-                    }
-                }
+        position.relocate(from, Position.square(toI, toJ));
+        return MoveResult.VALID;
+    }
 
-                board[y][x] = null;
-                board[y - amount][x] = piece;
-                piece.setI(y - amount);
-                return true;
-            }
-            case DOWN -> {
-                if (y + amount > 15) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y + distance][x])) {
-                        System.out.println("Invalid move: The path is not clear!");
-                        return false;
-                    }
-                }
-                board[y][x] = null;
-                board[y + amount][x] = piece;
-                piece.setI(y + amount);
-                return true;
-            }
-            case RIGHT -> {
-                if (x + amount > 7) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y][x + distance])) {
-                        System.out.println("Invalid move: There is already a piece at this location!");
-                        return false;
-                    }
-                }
-                board[y][x] = null;
-                board[y][x + amount] = piece;
-                piece.setJ(x + amount);
-                return true;
-            }
-            case LEFT -> {
-                if (x - amount < 0) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y][x - distance])) {
-                        System.out.println("Invalid move: There is already a piece at this location!");
-                        return false;
-                    }
-                }
-                board[y][x] = null;
-                board[y][x - amount] = piece;
-                piece.setJ(x - amount);
-                return true;
-            }
-            case DIAGONALUPLEFT -> {
-                if (y - amount < 0 || x - amount < 0) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y - distance][x - distance])) {
-                        System.out.println("Invalid move: There is already a piece at this location!");
-                        return false;
-                    }
-                }
-                board[y][x] = null;
-                board[y - amount][x - amount] = piece;
-                piece.setI(y - amount);
-                piece.setJ(x - amount);
-                return true;
-            }
-            case DIAGONALUPRIGHT -> {
-                if (y - amount < 0 || x + amount > 7) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y - distance][x + distance])) {
-                        System.out.println("Invalid move: There is already a piece at this location!");
-                        return false;
-                    }
-                }
-                board[y][x] = null;
-                board[y - amount][x + amount] = piece;
-                piece.setI(y - amount);
-                piece.setJ(x + amount);
-                return true;
-            }
-            case DIAGONALDOWNLEFT -> {
-                if (y + amount > 15 || x - amount < 0) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y + distance][x - distance])) {
-                        System.out.println("Invalid move: There is already a piece at this location!");
-                        return false;
+    /**
+     * Moves a piece according to a move encoded by {@link Move}.
+     *
+     * @param move  The encoded move
+     * @param color The color the piece to be moved should be
+     * @return {@code true} if the movement was successful and {@code false} if the move was invalid
+     */
+    public boolean move(int move, Piece.Color color) {
+        int from = Move.from(move);
+        return this.move(Position.column(from) + 1, 16 - Position.row(from), Move.distance(move), Move.direction(move), color);
+    }
+
+    /**
+     * Lists every legal move of one color without allocating.
+     *
+     * @param color The color to generate moves for
+     * @param moves The buffer the moves are written to, encoded by {@link Move}; {@link Move#MAX_MOVES} long is always enough
+     * @return The number of moves written to {@code moves}
+     */
+    public int generateMoves(Piece.Color color, int[] moves) {
+        int count = 0;
+        for (int half = 0; half < 2; half++) {
+            long pieces = position.occupied(color, half);
+            while (pieces != 0) {
+                int from = half << 6 | Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                Piece piece = position.get(from);
+                for (int amount = 1; amount <= 3; amount++) {
+                    if (!piece.validMovement(amount)) {
+                        continue;
                     }
-                }
-                board[y][x] = null;
-                board[y + amount][x - amount] = piece;
-                piece.setI(y + amount);
-                piece.setJ(x - amount);
-                return true;
-            }
-            case DIAGONALDOWNRIGHT -> {
-                if (y + amount > 15 || x + amount > 7) {
-                    System.out.println("Invalid move: There is not enough board space!");
-                    return false;
-                }
-                for (int distance = 1; distance <= amount; distance++) {
-                    if (!Objects.isNull(board[y + distance][x + distance])) {
-                        System.out.println("Invalid move: There is already a piece at this location!");
-                        return false;
+                    for (BoardGame.Direction direction : BoardGame.Direction.ALL) {
+                        if (position.isRayClear(from, direction, amount)) {
+                            moves[count++] = Move.encode(from, amount, direction);
+                        }
                     }
                 }
-                board[y][x] = null;
-                board[y + amount][x + amount] = piece;
-                piece.setI(y + amount);
-                piece.setJ(x + amount);
-                return true;
-            }
-            default -> {
-                return false;
             }
         }
+        return count;
+    }
+
+    /**
+     * Lists every capture of one color in one pass without allocating: each Encounter, Eruption, Deceit and siege,
+     * with its capturing pieces, its target and the Perfecta component it takes.
+     *
+     * @param color    The capturing color
+     * @param captures The buffer the captures are written to, encoded by {@link Capture};
+     *                 {@link CaptureGenerator#MAX_CAPTURES} long is enough for any layout
+     * @return The number of captures written to {@code captures}, each of which {@link #makeCapture(long)} accepts
+     */
+    public int enumerateCaptures(Piece.Color color, long[] captures) {
+        return captureGenerator.generate(this, color, captures);
+    }
+
+    /**
+     * Applies a legal move produced by {@link #generateMoves(Piece.Color, int[])}, recording it so that
+     * {@link #unmakeMove()} can take it back. No validation is done.
+     *
+     * @param move The encoded move
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        position.relocate(from, to);
+        this.pushUndo(UNDO_MOVE, from, to, null, null);
+    }
+
+    /**
+     * Takes back the last change, which must have been made by {@link #makeMove(int)}.
+     */
+    public void unmakeMove() {
+        long entry = this.popUndo(UNDO_MOVE);
+        position.relocate(undoSecondSquare(entry), undoFirstSquare(entry));
+    }
+
+    /**
+     * Applies a legal capture encoded by {@link Capture}, recording it so that {@link #unmakeCapture()} can take it
+     * back. No validation is done and no ransom is offered; the capture is counted for the capturing color.
+     *
+     * @param capture The encoded capture
+     */
+    public void makeCapture(long capture) {
+        int target = Capture.target(capture);
+        int component = Capture.component(capture);
+        Piece piece = position.get(target);
+        Piece.Color color = piece.getColor().opposite();
+        if (component > -1 && piece.getShape() == Piece.Shape.PERFECTA && ((Perfecta) piece).getComponentCount() > 1) {
+            Piece removed = ((Perfecta) piece).getComponent(component);
+            position.capturePerfectaComponent(target, component);
+            this.pushUndo(UNDO_COMPONENT, target, 0, removed, color);
+        } else {
+            this.pushUndo(UNDO_REMOVE, target, 0, position.remove(target), color);
+        }
+        this.addCapture(color, 1);
+    }
+
+    /**
+     * Takes back the last change, which must have been made by {@link #makeCapture(long)}.
+     */
+    public void unmakeCapture() {
+        if (undoSize > 0 && (undoStack[undoSize - 1] & 0x3) == UNDO_COMPONENT) {
+            long entry = this.popUndo(UNDO_COMPONENT);
+            position.restorePerfectaComponent(undoFirstSquare(entry), undoPieces[undoSize]);
+            undoPieces[undoSize] = null;
+            this.addCapture(undoColor(entry), -1);
+        } else {
+            long entry = this.popUndo(UNDO_REMOVE);
+            position.put(undoFirstSquare(entry), undoPieces[undoSize]);
+            undoPieces[undoSize] = null;
+            this.addCapture(undoColor(entry), -1);
+        }
+    }
+
+    /**
+     * Applies a ransom paid for a captured Perfecta: the piece on {@code ransomSquare} is removed instead, and the
+     * capture is counted for the other color. The change is recorded so that {@link #unmakeRansom()} can take it back.
+     *
+     * @param ransomSquare The square of the piece given up by the owner of the Perfecta
+     */
+    public void makeRansom(int ransomSquare) {
+        Piece piece = position.remove(ransomSquare);
+        Piece.Color color = piece.getColor().opposite();
+        this.pushUndo(UNDO_RANSOM, ransomSquare, 0, piece, color);
+        this.addCapture(color, 1);
+    }
+
+    /**
+     * Takes back the last change, which must have been made by {@link #makeRansom(int)}.
+     */
+    public void unmakeRansom() {
+        long entry = this.popUndo(UNDO_RANSOM);
+        position.put(undoFirstSquare(entry), undoPieces[undoSize]);
+        undoPieces[undoSize] = null;
+        this.addCapture(undoColor(entry), -1);
+    }
+
+    /**
+     * Get the number of changes that can currently be taken back.
+     *
+     * @return The size of the undo stack
+     */
+    public int getUndoDepth() {
+        return undoSize;
+    }
+
+    private void pushUndo(int type, int firstSquare, int secondSquare, Piece piece, Piece.Color color) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, 2 * undoSize);
+            undoPieces = Arrays.copyOf(undoPieces, 2 * undoSize);
+        }
+        int counter = color == null ? 0 : color.ordinal() + 1;
+        undoStack[undoSize] = type | firstSquare << 2 | secondSquare << 9 | counter << 16;
+        undoPieces[undoSize] = piece;
+        undoSize++;
+    }
+
+    private long popUndo(int type) {
+        if (undoSize == 0 || (undoStack[undoSize - 1] & 0x3) != type) {
+            throw new IllegalStateException("The last change was not made by the matching make method");
+        }
+        return undoStack[--undoSize];
+    }
+
+    private static int undoFirstSquare(long entry) {
+        return (int) (entry >>> 2 & 0x7F);
+    }
+
+    private static int undoSecondSquare(long entry) {
+        return (int) (entry >>> 9 & 0x7F);
+    }
+
+    private static Piece.Color undoColor(long entry) {
+        return COLORS[(int) (entry >>> 16 & 0x3) - 1];
+    }
+
+    private void addCapture(Piece.Color color, int amount) {
+        if (color == Piece.Color.WHITE) {
+            this.numWhiteCaptured += amount;
+        } else {
+            this.numBlackCaptured += amount;
+        }
     }
 
     public void incrementBlackCaptured() {
@@ -270,147 +367,215 @@ public class Board implements BoardGame {
     /**
      * Check for valid capturing methods
      *
-     * @param capturingPieces The pieces that are being used to capture
-     * @param capturedPieceX  The x-coordinate of the captured piece
-     * @param capturedPieceY  The y-coordinate of the captured piece
-     * @param color           The color that should be used to capture with
+     * @param capturers The squares of the capturing pieces, added to 0 with {@link Capture#withCapturer(long, int)};
+     *                  the other fields of the encoding are ignored, so a generated {@link Capture} can be passed as is
+     * @param target    The square of the captured piece
+     * @param color     The color that should be used to capture with
      * @return {@code true} if the capture is valid and {@code false} otherwise
      */
-    public boolean capture(ArrayList<Piece> capturingPieces, int capturedPieceX, int capturedPieceY, Piece.Color color) {
-        if (capturingPieces.isEmpty()) {
-            System.out.println("Invalid capture: You can't capture with nothing!");
-            return false;
+    public boolean capture(long capturers, int target, Piece.Color color) {
+        return this.tryCapture(capturers, target, color).isSuccess();
+    }
+
+    /**
+     * Check for valid capturing methods, removing the captured piece and counting the capture if one applies.
+     * Nothing is allocated, so bots can try many candidate captures per position.
+     *
+     * @param capturers The squares of the capturing pieces, added to 0 with {@link Capture#withCapturer(long, int)};
+     *                  the other fields of the encoding are ignored, so a generated {@link Capture} can be passed as is
+     * @param target    The square of the captured piece
+     * @param color     The color that should be used to capture with
+     * @return The rule that captured the piece, or the reason the capture was rejected
+     */
+    public CaptureResult tryCapture(long capturers, int target, Piece.Color color) {
+        int count = Capture.capturerCount(capturers);
+        if (count == 0) {
+            return CaptureResult.NO_CAPTURING_PIECES;
         }
-        for (Piece piece : capturingPieces) {
+        long capturingLo = 0;
+        long capturingHi = 0;
+        for (int index = 0; index < count; index++) {
+            int square = Capture.capturer(capturers, index);
+            Piece piece = position.get(square);
             if (Objects.isNull(piece)) {
-                System.out.println("Invalid capture: This piece does not exist!");
-                return false;
+                return CaptureResult.NO_PIECE;
             } else if (piece.getColor() != color) {
-                System.out.println("Invalid capture: No cheating!");
-                return false;
+                return CaptureResult.WRONG_COLOR;
+            }
+            long bit = 1L << square;
+            if (((square < 64 ? capturingLo : capturingHi) & bit) != 0) {
+                return CaptureResult.REPEATED_PIECE;
+            }
+            if (square < 64) {
+                capturingLo |= bit;
+            } else {
+                capturingHi |= bit;
             }
         }
-        Piece capturedPiece = this.getBoardPiece(capturedPieceX, capturedPieceY, true);
-        if (Objects.isNull(capturedPiece)) {
-            System.out.println("Invalid capture: This piece does not exist!");
-        } else if (capturedPiece.getColor() == color) {
-            System.out.println("Invalid capture: Are you trying to lose? You can't capture yourself!");
+        CaptureResult rejected = this.checkTarget(target, color);
+        if (rejected != null) {
+            return rejected;
         }
+        Piece capturedPiece = position.get(target);
+        int first = Capture.capturer(capturers, 0);
+        int second = Capture.capturer(capturers, 1);
+        CaptureResult result = CaptureResult.NO_RULE;
+        int perfectaPieceNumber = -2;
         // Single Piece Captures:
-        if (capturingPieces.size() == 1) {
-            Piece capturingPiece = capturingPieces.get(0);
-            if (!pathIsClear(capturedPiece, capturingPiece)) {
-                System.out.println("Invalid capture: Path to target is not clear!");
-                return false;
-            }
-            int encounterCheck = capturedPiece.checkEncounterCapture(capturingPiece);
-            if (encounterCheck > -2) {
-                this.removePiece(capturedPiece.getI(), capturedPiece.getJ(), encounterCheck);
-                return true;
+        if (count == 1) {
+            if (!position.isPathClear(target, first)) {
+                return CaptureResult.PATH_BLOCKED;
             }
-            // Eruption
-            int eruptionCheck = capturedPiece.checkEruptionCapture(capturingPiece);
-            if (eruptionCheck > -2) {
-                this.removePiece(capturedPiece.getI(), capturedPiece.getJ(), eruptionCheck);
-                return true;
+            Piece capturingPiece = position.get(first);
+            perfectaPieceNumber = capturedPiece.checkEncounterCapture(capturingPiece);
+            result = CaptureResult.ENCOUNTER;
+            if (perfectaPieceNumber == -2) {
+                // Eruption
+                perfectaPieceNumber = capturedPiece.checkEruptionCapture(target, capturingPiece, first);
+                result = CaptureResult.ERUPTION;
             }
-        } else if (capturingPieces.size() == 2) {
+        } else if (count == 2) {
             // Deceit
-            int deceitCheck = capturedPiece.checkDeceitCapture(capturingPieces);
-            if (deceitCheck > -2) {
-                this.removePiece(capturedPiece.getI(), capturedPiece.getJ(), deceitCheck);
-                return true;
-            }
-            // 2-Sided Siege
-            int siegeCheck = capturedPiece.check2SidedSiegeCapture(capturingPieces);
-            if (siegeCheck > -2) {
-                this.removePiece(capturedPiece.getI(), capturedPiece.getJ(), siegeCheck);
-                return true;
+            perfectaPieceNumber = capturedPiece.checkDeceitCapture(target, position.get(first), first, position.get(second), second);
+            result = CaptureResult.DECEIT;
+            if (perfectaPieceNumber == -2) {
+                // 2-Sided Siege
+                perfectaPieceNumber = capturedPiece.check2SidedSiegeCapture(target, first, second);
+                result = CaptureResult.TWO_SIDED_SIEGE;
             }
-        } else if (capturingPieces.size() == 3) {
+        } else if (count == 3) {
             // 3-Sided Siege
-            int siegeCheck = capturedPiece.check3SidedSiegeCapture(capturingPieces);
-            if (siegeCheck > -2) {
-                this.removePiece(capturedPiece.getI(), capturedPiece.getJ(), siegeCheck);
-                return true;
-            }
-        } else if (capturingPieces.size() == 4) {
+            perfectaPieceNumber = capturedPiece.check3SidedSiegeCapture(target, first, second, Capture.capturer(capturers, 2));
+            result = CaptureResult.THREE_SIDED_SIEGE;
+        } else if (count == 4) {
             // 4-Sided Siege
-            ArrayList<Piece> found = capturingPieces;
-            for (int i = capturedPiece.getI() - 1; i > 0 && i < 15 && i < capturedPiece.getI() + 2; i += 2) {
-                for (int j = capturedPiece.getI() - 1; i > 0 && i < 15 && i < capturedPiece.getI() + 2; i += 2) {
-                    for (int capPiece = 0; capPiece < capturingPieces.size(); capPiece++) {
-                        if (capturingPieces.get(capPiece).equals(this.getBoardPiece(i, j, false))) {
-                            found.remove(capPiece);
-                            capPiece--;
-                        }
-                    }
-                }
-            }
-            if (found.isEmpty()) {
-                removePiece(capturedPiece.getI(), capturedPiece.getJ());
-                return true;
-            }
-            found = capturingPieces;
-            this.getBoardPiece(capturedPiece.getI(), capturedPiece.getJ(), false);
-            for (int capPiece = 0; capPiece < capturingPieces.size(); capPiece++) {
-                if (capturingPieces.get(capPiece).equals(this.getBoardPiece(capturedPiece.getI() - 1, capturedPiece.getJ(), false)) || capturingPieces.get(capPiece).equals(this.getBoardPiece(capturedPiece.getI() + 1, capturedPiece.getJ(), false)) || capturingPieces.get(capPiece).equals(this.getBoardPiece(capturedPiece.getI(), capturedPiece.getJ() - 1, false)) || capturingPieces.get(capPiece).equals(this.getBoardPiece(capturedPiece.getI(), capturedPiece.getJ() + 1, false))) {
-                    found.remove(capPiece);
-                    capPiece--;
-                }
-            }
-            if (found.isEmpty()) {
-                removePiece(capturedPiece.getI(), capturedPiece.getJ());
-                return true;
+            if (Siege.rule(target, capturingLo, capturingHi) == CaptureResult.FOUR_SIDED_SIEGE) {
+                perfectaPieceNumber = -1;
+                result = CaptureResult.FOUR_SIDED_SIEGE;
             }
         } else {
-            System.out.println("Invalid capture: Cannot capture with so many pieces!");
+            return CaptureResult.TOO_MANY_PIECES;
+        }
+        if (perfectaPieceNumber == -2) {
+            return CaptureResult.NO_RULE;
+        }
+        this.removePiece(target, perfectaPieceNumber);
+        if (color == Piece.Color.WHITE) {
+            this.incrementWhiteCaptured();
+        } else {
+            this.incrementBlackCaptured();
         }
-        return false;
+        return result;
     }
 
     /**
-     * Check whether the path between two pieces is clear on the board.
+     * Check that a square holds a piece {@code color} may capture.
      *
-     * @param startPiece The piece the path starts at
-     * @param endPiece   The piece the path ends at
-     * @return {@code true} if the path is clear and {@code false} if the path is not clear
+     * @return The reason the piece cannot be captured, or {@code null} if it can be
      */
-    private boolean pathIsClear(Piece startPiece, Piece endPiece) {
-        int distanceI = endPiece.getI() - startPiece.getI();
-        int distanceJ = endPiece.getJ() - startPiece.getJ();
-        if (distanceJ == 0) {
-            for (int i = (int) Math.signum(distanceI); Math.abs(i) <= distanceI; i++) {
-                if (!Objects.isNull(this.getBoardPiece(startPiece.getI() + i, endPiece.getJ(), false))) {
-                    return false;
-                }
-            }
-        } else if (distanceI == 0) {
-            for (int j = (int) Math.signum(distanceJ); Math.abs(j) <= distanceJ; j++) {
-                if (!Objects.isNull(this.getBoardPiece(endPiece.getI(), startPiece.getJ() + j, false))) {
-                    return false;
-                }
-            }
-        } else {
-            for (int i = (int) Math.signum(distanceI); Math.abs(i) <= distanceI; i++) {
-                if (!Objects.isNull(this.getBoardPiece(startPiece.getJ() + i, startPiece.getJ() + i, false))) {
-                    return false;
-                }
-            }
+    private CaptureResult checkTarget(int target, Piece.Color color) {
+        Piece capturedPiece = target < 0 || target >= Position.SQUARES ? null : position.get(target);
+        if (Objects.isNull(capturedPiece)) {
+            return CaptureResult.NO_PIECE;
+        } else if (capturedPiece.getColor() == color) {
+            return CaptureResult.OWN_PIECE;
         }
-        return true;
+        return null;
     }
 
-
     public boolean gameEnded() {
+        return this.getWinner() != null;
+    }
+
+    /**
+     * Get the color that reached the number of captures required to win.
+     *
+     * @return The winning color, or {@code null} if the game is still going
+     */
+    public Piece.Color getWinner() {
         if (this.numBlackCaptured >= winCon) {
-            System.out.println("Black wins!");
-            return true;
+            return Piece.Color.BLACK;
         } else if (this.numWhiteCaptured >= winCon) {
-            System.out.println("White wins!");
+            return Piece.Color.WHITE;
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of captures made by one color.
+     *
+     * @param color The capturing color
+     * @return The number of pieces {@code color} has captured
+     */
+    public int getCaptures(Piece.Color color) {
+        return color == Piece.Color.WHITE ? numWhiteCaptured : numBlackCaptured;
+    }
+
+    public int getWinCon() {
+        return winCon;
+    }
+
+    /**
+     * Get the bitboards behind the board, for code that reads the pieces square by square.
+     * Changes must go through the board, so that the undo stack and the capture counters stay consistent.
+     *
+     * @return The position of the pieces
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Registers a listener to be told about every later change to the pieces, however it is made.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(BoardListener listener) {
+        position.addListener(listener);
+    }
+
+    public void removeListener(BoardListener listener) {
+        position.removeListener(listener);
+    }
+
+    public void setRansomPolicy(RansomPolicy ransomPolicy) {
+        this.ransomPolicy = ransomPolicy;
+    }
+
+    /**
+     * Get the Zobrist hash of the board state: the pieces, the Perfecta components and the capture counters.
+     *
+     * @return The hash of the board
+     */
+    public long hash() {
+        return position.hash() ^ Zobrist.captures(Piece.Color.BLACK, numBlackCaptured) ^ Zobrist.captures(Piece.Color.WHITE, numWhiteCaptured);
+    }
+
+    /**
+     * Get the Zobrist hash of the board state together with the color to move, the key used by search and lookup
+     * tables.
+     *
+     * @param sideToMove The color to move
+     * @return The key of the position
+     */
+    public long hash(Piece.Color sideToMove) {
+        return this.hash() ^ (sideToMove == Piece.Color.WHITE ? Zobrist.SIDE_TO_MOVE : 0);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
             return true;
         }
-        return false;
+        if (!(object instanceof Board other)) {
+            return false;
+        }
+        return winCon == other.winCon && numBlackCaptured == other.numBlackCaptured && numWhiteCaptured == other.numWhiteCaptured && position.equals(other.position);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.hash());
     }
 
     public String toString() {
@@ -421,15 +586,16 @@ public class Board implements BoardGame {
             String repeat = " ".repeat(3 - String.valueOf(16 - i).length());
             result.append(16 - i).append(repeat);
             for (int j = 0; j < 8; j++) {
-                if (Objects.isNull(board[i][j])) {
+                Piece piece = position.get(Position.square(i, j));
+                if (Objects.isNull(piece)) {
                     result.append("│      ");
                 } else {
-                    result.append("│").append(board[i][j]).append(" ".repeat((6 - board[i][j].toString().length())));
-                    if (board[i][j].getShape() == Piece.Shape.PERFECTA) {
-                        if (board[i][j].getColor() == Piece.Color.BLACK) {
-                            blackPyramid = (Perfecta) board[i][j];
+                    result.append("│").append(piece).append(" ".repeat((6 - piece.toString().length())));
+                    if (piece.getShape() == Piece.Shape.PERFECTA) {
+                        if (piece.getColor() == Piece.Color.BLACK) {
+                            blackPyramid = (Perfecta) piece;
                         } else {
-                            whitePyramid = (Perfecta) board[i][j];
+                            whitePyramid = (Perfecta) piece;
                         }
                     }
                 }
@@ -456,68 +622,25 @@ public class Board implements BoardGame {
     }
 
     /**
-     * Removes the specified piece from the board.
+     * Removes the specified piece from the board, unless the {@link RansomPolicy} pays a ransom for a Perfecta.
      *
-     * @param i                   The i index of the piece to be removed
-     * @param j                   The j index of the piece to be removed
-     * @param perfectaPieceNumber The number of the perfecta piece to be removed if this piece is a {@code Perfecta}
+     * @param square              The square of the piece to be removed
+     * @param perfectaPieceNumber The number of the perfecta piece to be removed if this piece is a {@code Perfecta}, -1 to remove the whole piece
      */
-    private void removePiece(int i, int j, int perfectaPieceNumber) {
-        if (this.getBoardPiece(i, j, false).getShape() == Piece.Shape.PERFECTA && perfectaPieceNumber > -1) {
-            System.out.println("Would you like to pay ransom for your Perfecta?");
-            Scanner scan = new Scanner(System.in);
-            String ans = scan.next();
-            if (ans.contains("y")) {
-                while (true) {
-                    System.out.println("What piece would you like to ransom?");
-                    int pieceX = scan.nextInt();
-                    int pieceY = scan.nextInt();
-                    int ransomJ = pieceX - 1;
-                    int ransomI = 16 - pieceY;
-                    if (ransomI < 0 || ransomI > 15 || ransomJ < 0 || ransomJ > 7 || Objects.isNull(this.getBoardPiece(ransomI, ransomJ, false))) {
-                        System.out.println("Invalid ransom: Please enter a valid piece!");
-                    } else {
-                        this.board[ransomI][ransomJ] = null;
-                        return;
-                    }
-                }
-            } else {
-                ((Perfecta) this.getBoardPiece(i, j, false)).capture(perfectaPieceNumber);
+    private void removePiece(int square, int perfectaPieceNumber) {
+        Piece piece = this.position.get(square);
+        if (piece.getShape() == Piece.Shape.PERFECTA) {
+            int ransom = this.ransomPolicy.chooseRansom(this, square, piece.getColor());
+            if (ransom >= 0 && ransom < Position.SQUARES && ransom != square && this.position.isOccupied(ransom) && this.position.get(ransom).getColor() == piece.getColor()) {
+                this.position.remove(ransom);
+                return;
             }
-        } else {
-            this.board[i][j] = null;
-        }
-    }
-
-    /**
-     * Removes the specified piece from the board
-     *
-     * @param i The i index of the piece
-     * @param j The j index of the piece
-     */
-    private void removePiece(int i, int j) {
-        if (this.board[i][j].getShape() == Piece.Shape.PERFECTA) {
-            System.out.println("Would you like to pay ransom for your Perfecta?");
-            Scanner scan = new Scanner(System.in);
-            String ans = scan.next();
-            if (ans.contains("y")) {
-                while (true) {
-                    System.out.println("What piece would you like to ransom?");
-                    int pieceX = scan.nextInt();
-                    int pieceY = scan.nextInt();
-                    int ransomJ = pieceX - 1;
-                    int ransomI = 16 - pieceY;
-                    if (ransomI < 0 || ransomI > 15 || ransomJ < 0 || ransomJ > 7 || Objects.isNull(this.getBoardPiece(ransomI, ransomJ, false))) {
-                        System.out.println("Invalid ransom: Please enter a valid piece!");
-                    } else {
-                        this.board[ransomI][ransomJ] = null;
-                        return;
-                    }
-                }
-
+            if (perfectaPieceNumber > -1 && ((Perfecta) piece).getComponentCount() > 1) {
+                this.position.capturePerfectaComponent(square, perfectaPieceNumber);
+                return;
             }
         }
-        this.board[i][j] = null;
+        this.position.remove(square);
     }
 
     /**
@@ -532,27 +655,15 @@ public class Board implements BoardGame {
         if (convert) {
             int x = pieceX - 1;
             int y = 16 - pieceY;
-
-            if (y < 0 || y > 15) {
-                System.out.println("Invalid move: Y coordinate is out of bounds!");
-                return null;
-            } else if (x < 0 || x > 7) {
-                System.out.println("Invalid move: X coordinate is out of bounds!");
-                return null;
-            } else if (Objects.isNull(board[y][x])) {
-                System.out.println("Invalid move: This piece does not exist!");
+            if (y < 0 || y > 15 || x < 0 || x > 7) {
                 return null;
             }
-            return board[y][x];
+            return position.get(Position.square(y, x));
         } else {
-            if (pieceX < 0 || pieceX > 15) {
-                System.out.println("Invalid move: Y coordinate is out of bounds!");
-                return null;
-            } else if (pieceY < 0 || pieceY > 7) {
-                System.out.println("Invalid move: X coordinate is out of bounds!");
+            if (pieceX < 0 || pieceX > 15 || pieceY < 0 || pieceY > 7) {
                 return null;
             }
-            return board[pieceX][pieceY];
+            return position.get(Position.square(pieceX, pieceY));
         }
     }
 
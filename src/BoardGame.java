@@ -1,20 +1,104 @@
-import java.util.ArrayList;
-
 public interface BoardGame {
     boolean move(int pieceX, int pieceY, int amount, Direction direction, Piece.Color color);
 
-    boolean capture(ArrayList<Piece> capturingPieces, int capturedPieceX, int capturedPieceY, Piece.Color color);
+    boolean move(int move, Piece.Color color);
+
+    int generateMoves(Piece.Color color, int[] moves);
+
+    int enumerateCaptures(Piece.Color color, long[] captures);
+
+    MoveResult tryMove(int pieceX, int pieceY, int amount, Direction direction, Piece.Color color);
+
+    boolean capture(long capturers, int target, Piece.Color color);
+
+    CaptureResult tryCapture(long capturers, int target, Piece.Color color);
 
     boolean gameEnded();
 
     enum Direction {
-        UP,
-        DOWN,
-        LEFT,
-        RIGHT,
-        DIAGONALUPLEFT,
-        DIAGONALUPRIGHT,
-        DIAGONALDOWNLEFT,
-        DIAGONALDOWNRIGHT
+        UP(-1, 0),
+        DOWN(1, 0),
+        LEFT(0, -1),
+        RIGHT(0, 1),
+        DIAGONALUPLEFT(-1, -1),
+        DIAGONALUPRIGHT(-1, 1),
+        DIAGONALDOWNLEFT(1, -1),
+        DIAGONALDOWNRIGHT(1, 1);
+
+        static final Direction[] ALL = values();
+
+        private final int rowStep;
+        private final int columnStep;
+
+        Direction(int rowStep, int columnStep) {
+            this.rowStep = rowStep;
+            this.columnStep = columnStep;
+        }
+
+        public int getRowStep() {
+            return rowStep;
+        }
+
+        public int getColumnStep() {
+            return columnStep;
+        }
+    }
+
+    /**
+     * The outcome of a move.
+     */
+    enum MoveResult {
+        VALID(""),
+        Y_OUT_OF_BOUNDS("Invalid move: Y coordinate is out of bounds!"),
+        X_OUT_OF_BOUNDS("Invalid move: X coordinate is out of bounds!"),
+        NO_PIECE("Invalid move: This piece does not exist!"),
+        WRONG_COLOR("Invalid move: No Cheating!"),
+        INVALID_AMOUNT("Invalid move: This piece cannot move that many spaces!"),
+        NO_SPACE("Invalid move: There is not enough board space!"),
+        PATH_BLOCKED("Invalid move: The path is not clear!");
+
+        private final String message;
+
+        MoveResult(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * The outcome of a capture: the rule that captured the piece, or the reason the capture was rejected.
+     */
+    enum CaptureResult {
+        ENCOUNTER("Captured by Encounter!"),
+        ERUPTION("Captured by Eruption!"),
+        DECEIT("Captured by Deceit!"),
+        TWO_SIDED_SIEGE("Captured by 2-Sided Siege!"),
+        THREE_SIDED_SIEGE("Captured by 3-Sided Siege!"),
+        FOUR_SIDED_SIEGE("Captured by 4-Sided Siege!"),
+        NO_CAPTURING_PIECES("Invalid capture: You can't capture with nothing!"),
+        NO_PIECE("Invalid capture: This piece does not exist!"),
+        WRONG_COLOR("Invalid capture: No cheating!"),
+        OWN_PIECE("Invalid capture: Are you trying to lose? You can't capture yourself!"),
+        PATH_BLOCKED("Invalid capture: Path to target is not clear!"),
+        TOO_MANY_PIECES("Invalid capture: Cannot capture with so many pieces!"),
+        REPEATED_PIECE("Invalid capture: Each piece can only capture once!"),
+        NO_RULE("Invalid capture: None of the capture rules apply!");
+
+        private final String message;
+
+        CaptureResult(String message) {
+            this.message = message;
+        }
+
+        public boolean isSuccess() {
+            return this.ordinal() <= FOUR_SIDED_SIEGE.ordinal();
+        }
+
+        public String getMessage() {
+            return message;
+        }
     }
 }
@@ -0,0 +1,14 @@
+/**
+ * Receives every change made to the pieces of a {@link Board}, so that derived data can be kept up to date instead of
+ * being recomputed from the whole board.
+ */
+public interface BoardListener {
+    /**
+     * Called after a piece is placed on or removed from a square, and before and after a Perfecta loses or regains a
+     * component. A move is a removal followed by a placement.
+     *
+     * @param square The square that changed
+     * @param piece  The piece placed, removed or changed
+     */
+    void squareChanged(int square, Piece piece);
+}
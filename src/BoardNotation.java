@@ -0,0 +1,206 @@
+/**
+ * Text notation for a board state, so that positions can be saved, shared and loaded.
+ * A position is written as five fields separated by spaces: the rows, the color to move ({@code b} or {@code w}), the
+ * captures made by black, the captures made by white and the number of captures required to win.
+ * The rows go from y = 16 down to y = 1 and are separated by {@code /}. Each row is a comma separated list of tokens
+ * covering its 8 squares: a number of empty squares, or a piece written as its shape ({@code c}ircle, {@code t}riangle,
+ * {@code s}quare or {@code p}erfecta), in lower case for black and upper case for white, followed by its number. A
+ * Perfecta is followed by its remaining components, joined by dots.
+ * <p>
+ * For example {@code 8/8/8/8/8/8/8/8/8/8/2,c9,5/3,T81,4/8/8/8/8 b 0 0 1} is a black circle 9 facing a white
+ * triangle 81, with black to move.
+ */
+public class BoardNotation {
+    private BoardNotation() {
+    }
+
+    /**
+     * Write a board state in the notation.
+     *
+     * @param board      The board to write
+     * @param sideToMove The color to move
+     * @return The notation of the board
+     */
+    public static String format(Board board, Piece.Color sideToMove) {
+        StringBuilder result = new StringBuilder();
+        Position position = board.getPosition();
+        for (int i = 0; i < Position.ROWS; i++) {
+            if (i > 0) {
+                result.append('/');
+            }
+            int empty = 0;
+            boolean first = true;
+            for (int j = 0; j < Position.COLUMNS; j++) {
+                Piece piece = position.get(Position.square(i, j));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    result.append(first ? "" : ",").append(empty);
+                    first = false;
+                    empty = 0;
+                }
+                result.append(first ? "" : ",");
+                first = false;
+                appendPiece(result, piece);
+            }
+            if (empty > 0) {
+                result.append(first ? "" : ",").append(empty);
+            }
+        }
+        return result.append(' ').append(sideToMove == Piece.Color.BLACK ? 'b' : 'w')
+                .append(' ').append(board.getCaptures(Piece.Color.BLACK))
+                .append(' ').append(board.getCaptures(Piece.Color.WHITE))
+                .append(' ').append(board.getWinCon()).toString();
+    }
+
+    /**
+     * Read the board state of a position.
+     *
+     * @param notation The notation of the position
+     * @return A new board holding the position
+     * @throws IllegalArgumentException If the notation is not valid
+     */
+    public static Board parseBoard(String notation) {
+        String[] fields = fields(notation);
+        String[] rows = fields[0].split("/");
+        if (rows.length != Position.ROWS) {
+            throw new IllegalArgumentException("Expected " + Position.ROWS + " rows but found " + rows.length);
+        }
+        Piece[][] pieces = new Piece[Position.ROWS][Position.COLUMNS];
+        for (int i = 0; i < Position.ROWS; i++) {
+            int j = 0;
+            for (String token : rows[i].split(",")) {
+                if (token.isEmpty()) {
+                    throw new IllegalArgumentException("Empty token in row " + (16 - i));
+                } else if (Character.isDigit(token.charAt(0))) {
+                    j += Integer.parseInt(token);
+                } else if (j < Position.COLUMNS) {
+                    pieces[i][j] = parsePiece(token);
+                    j++;
+                } else {
+                    j++;
+                }
+            }
+            if (j != Position.COLUMNS) {
+                throw new IllegalArgumentException("Row " + (16 - i) + " covers " + j + " squares instead of " + Position.COLUMNS);
+            }
+        }
+        Board board = new Board(parseNumber(fields[4], "win condition"), pieces);
+        for (int capture = parseNumber(fields[2], "black captures"); capture > 0; capture--) {
+            board.incrementBlackCaptured();
+        }
+        for (int capture = parseNumber(fields[3], "white captures"); capture > 0; capture--) {
+            board.incrementWhiteCaptured();
+        }
+        return board;
+    }
+
+    /**
+     * Read the color to move of a position.
+     *
+     * @param notation The notation of the position
+     * @return The color to move
+     * @throws IllegalArgumentException If the notation is not valid
+     */
+    public static Piece.Color parseSideToMove(String notation) {
+        String side = fields(notation)[1];
+        if (side.equals("b")) {
+            return Piece.Color.BLACK;
+        } else if (side.equals("w")) {
+            return Piece.Color.WHITE;
+        }
+        throw new IllegalArgumentException("The color to move must be b or w, not " + side);
+    }
+
+    private static String[] fields(String notation) {
+        String[] fields = notation.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Expected 5 fields but found " + fields.length);
+        }
+        return fields;
+    }
+
+    /**
+     * Write a single piece the way it appears in a row.
+     *
+     * @param piece The piece to write
+     * @return The token of the piece
+     */
+    static String formatPiece(Piece piece) {
+        return appendPiece(new StringBuilder(), piece).toString();
+    }
+
+    private static StringBuilder appendPiece(StringBuilder result, Piece piece) {
+        char shape = letter(piece.getShape());
+        result.append(piece.getColor() == Piece.Color.WHITE ? Character.toUpperCase(shape) : shape);
+        if (piece.getShape() == Piece.Shape.PERFECTA) {
+            for (int component = 0; component < ((Perfecta) piece).getComponentCount(); component++) {
+                result.append(component == 0 ? "" : ".").append(((Perfecta) piece).getComponent(component).getNumber());
+            }
+        } else {
+            result.append(piece.getNumber());
+        }
+        return result;
+    }
+
+    /**
+     * Read a single piece written the way it appears in a row.
+     *
+     * @param token The token of the piece
+     * @return The piece
+     * @throws IllegalArgumentException If the token is not a valid piece
+     */
+    static Piece parsePiece(String token) {
+        Piece.Shape shape = switch (Character.toLowerCase(token.charAt(0))) {
+            case 'c' -> Piece.Shape.CIRCLE;
+            case 't' -> Piece.Shape.TRIANGLE;
+            case 's' -> Piece.Shape.SQUARE;
+            case 'p' -> Piece.Shape.PERFECTA;
+            default -> throw new IllegalArgumentException("Unknown piece " + token);
+        };
+        Piece.Color color = Character.isUpperCase(token.charAt(0)) ? Piece.Color.WHITE : Piece.Color.BLACK;
+        if (shape != Piece.Shape.PERFECTA) {
+            return Piece.of(parseNumber(token.substring(1), token), shape, color);
+        }
+        Perfecta perfecta = Perfecta.of(color);
+        int kept = 0;
+        for (String component : token.substring(1).split("\\.")) {
+            int number = parseNumber(component, token);
+            int index = indexOf(perfecta, number);
+            if (index < 0 || (kept & 1 << index) != 0) {
+                throw new IllegalArgumentException("A " + color + " Perfecta has no component " + number + " in " + token);
+            }
+            kept |= 1 << index;
+        }
+        // The components of a full Perfecta are indexed by their slots, so the kept indices are the component mask
+        return Perfecta.of(color, kept);
+    }
+
+    private static char letter(Piece.Shape shape) {
+        return switch (shape) {
+            case CIRCLE -> 'c';
+            case TRIANGLE -> 't';
+            case SQUARE -> 's';
+            case PERFECTA -> 'p';
+        };
+    }
+
+    private static int indexOf(Perfecta perfecta, int number) {
+        for (int index = 0; index < perfecta.getComponentCount(); index++) {
+            if (perfecta.getComponent(index).getNumber() == number) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseNumber(String text, String context) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number " + text + " in " + context);
+        }
+    }
+}
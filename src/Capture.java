@@ -0,0 +1,92 @@
+/**
+ * Packs a capture into a single {@code long} so that captures can be stored and undone without objects.
+ * Bits 0-6 hold the square of the captured piece, bits 7-9 the ordinal of the {@link BoardGame.CaptureResult} rule,
+ * bits 10-12 the index of the captured Perfecta component plus one (0 when the whole piece is taken), bits 13-15 the
+ * number of capturing pieces and bits 16-43 the squares of up to four capturing pieces, seven bits each.
+ * A real capture always has at least one capturing piece, so no capture encodes to 0.
+ */
+public class Capture {
+    /**
+     * The largest number of pieces that take part in one capture.
+     */
+    public static final int MAX_CAPTURING_PIECES = 4;
+
+    private static final BoardGame.CaptureResult[] RULES = BoardGame.CaptureResult.values();
+
+    private Capture() {
+    }
+
+    /**
+     * Encode a capture without its capturing pieces, which are added with {@link #withCapturer(long, int)}.
+     *
+     * @param rule      The rule the capture is made by
+     * @param target    The square of the captured piece
+     * @param component The index of the captured Perfecta component, or -1 to take the whole piece
+     * @return The encoded capture
+     */
+    public static long encode(BoardGame.CaptureResult rule, int target, int component) {
+        return target | (long) rule.ordinal() << 7 | (long) (component + 1) << 10;
+    }
+
+    /**
+     * Add a capturing piece to an encoded capture.
+     *
+     * @param capture The encoded capture, with fewer than {@link #MAX_CAPTURING_PIECES} capturing pieces
+     * @param square  The square of the capturing piece
+     * @return The encoded capture including the new capturing piece
+     */
+    public static long withCapturer(long capture, int square) {
+        int count = capturerCount(capture);
+        return (capture & ~(0x7L << 13)) | (long) (count + 1) << 13 | (long) square << (16 + 7 * count);
+    }
+
+    public static int target(long capture) {
+        return (int) (capture & 0x7F);
+    }
+
+    public static BoardGame.CaptureResult rule(long capture) {
+        return RULES[(int) (capture >>> 7 & 0x7)];
+    }
+
+    /**
+     * Get the Perfecta component taken by the capture.
+     *
+     * @param capture The encoded capture
+     * @return The index of the component, or -1 if the whole piece is taken
+     */
+    public static int component(long capture) {
+        return (int) (capture >>> 10 & 0x7) - 1;
+    }
+
+    public static int capturerCount(long capture) {
+        return (int) (capture >>> 13 & 0x7);
+    }
+
+    /**
+     * Get one of the capturing pieces.
+     *
+     * @param capture The encoded capture
+     * @param index   The index of the capturing piece, below {@link #capturerCount(long)}
+     * @return The square of the capturing piece
+     */
+    public static int capturer(long capture, int index) {
+        return (int) (capture >>> (16 + 7 * index) & 0x7F);
+    }
+
+    /**
+     * Format a capture the way {@link Game} reads it:
+     * {@code [number of pieces] [capturing piece #1 x] [capturing piece #1 y]...[captured piece x] [captured piece y]}.
+     *
+     * @param capture The encoded capture
+     * @return The human readable capture
+     */
+    public static String toString(long capture) {
+        StringBuilder result = new StringBuilder().append(capturerCount(capture));
+        for (int index = 0; index < capturerCount(capture); index++) {
+            int square = capturer(capture, index);
+            result.append(' ').append(Position.column(square) + 1).append(' ').append(16 - Position.row(square));
+        }
+        int target = target(capture);
+        return result.append(' ').append(Position.column(target) + 1).append(' ').append(16 - Position.row(target)).toString();
+    }
+}
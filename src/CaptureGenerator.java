@@ -0,0 +1,118 @@
+/**
+ * Finds the captures available to one color by trying the capture rules on every candidate group of pieces: the
+ * pieces whose numbers may capture the target for Encounter and Eruption, looked up in the number occupancy of the
+ * {@link Position}, and the pairs of neighbors of each target for Deceit. Sieges are found by {@link Siege}.
+ * {@link Board#enumerateCaptures(Piece.Color, long[])} lists the captures of a whole board with the generator of the
+ * board.
+ */
+public class CaptureGenerator {
+    /**
+     * Upper bound on the number of captures one color can have in any position, legal or not: one Encounter or
+     * Eruption per pair of a capturer and a target, at most 64 × 64 on the 128 squares, and for each target at most
+     * one Deceit for each of the 8 pairs of neighbors at the same distance and two sieges.
+     */
+    public static final int MAX_CAPTURES = (Position.SQUARES / 2) * (Position.SQUARES / 2) + Position.SQUARES * (8 + 2);
+
+    /**
+     * The pairs of directions whose neighbors may capture by Deceit, in the order the pairs are tried.
+     */
+    private static final int[] DECEIT_PAIRS = deceitPairs();
+
+    private static int[] deceitPairs() {
+        int[] pairs = new int[2 * 8];
+        int size = 0;
+        BoardGame.Direction[] directions = BoardGame.Direction.ALL;
+        for (int first = 0; first < directions.length; first++) {
+            for (int second = first + 1; second < directions.length; second++) {
+                if (Math.abs(directions[first].getRowStep()) == Math.abs(directions[second].getRowStep()) && Math.abs(directions[first].getColumnStep()) == Math.abs(directions[second].getColumnStep())) {
+                    pairs[size++] = first;
+                    pairs[size++] = second;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Lists every capture of one color.
+     *
+     * @param board    The board to look at
+     * @param color    The color capturing
+     * @param captures The buffer the captures are written to, encoded by {@link Capture}
+     * @return The number of captures written to {@code captures}
+     */
+    public int generate(Board board, Piece.Color color, long[] captures) {
+        Position position = board.getPosition();
+        int count = 0;
+        for (int half = 0; half < 2; half++) {
+            long targets = position.occupied(color.opposite(), half);
+            while (targets != 0) {
+                int target = half << 6 | Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                count = this.generate(position, color, target, captures, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lists the captures of one target, in the order {@link #generate(Board, Piece.Color, long[])} lists them.
+     *
+     * @param position The position to look at
+     * @param color    The color capturing
+     * @param target   The square of a piece of the other color
+     * @param captures The buffer the captures are written to, encoded by {@link Capture}
+     * @param count    The number of captures already in the buffer
+     * @return The number of captures in the buffer
+     */
+    int generate(Position position, Piece.Color color, int target, long[] captures, int count) {
+        count = this.generateSingle(position, color, target, captures, count);
+        return this.generateGroups(position, color, target, captures, count);
+    }
+
+    private int generateSingle(Position position, Piece.Color color, int target, long[] captures, int count) {
+        Piece targetPiece = position.get(target);
+        long numbers = CaptureTable.numbers(targetPiece);
+        long candidates = numbers | CaptureTable.eruptionCapturers(numbers);
+        for (int half = 0; half < 2; half++) {
+            long capturers = numbers == 0 ? position.occupied(color, half) : position.occupiedByNumbers(color, candidates, half) | position.occupiedByUnindexedNumbers(color, half);
+            while (capturers != 0) {
+                int square = half << 6 | Long.numberOfTrailingZeros(capturers);
+                capturers &= capturers - 1;
+                if (!position.isPathClear(target, square)) {
+                    continue;
+                }
+                Piece capturer = position.get(square);
+                BoardGame.CaptureResult rule = BoardGame.CaptureResult.ENCOUNTER;
+                int component = targetPiece.checkEncounterCapture(capturer);
+                if (component == -2) {
+                    rule = BoardGame.CaptureResult.ERUPTION;
+                    component = targetPiece.checkEruptionCapture(target, capturer, square);
+                }
+                if (component > -2) {
+                    captures[count++] = Capture.withCapturer(Capture.encode(rule, target, component), square);
+                }
+            }
+        }
+        return count;
+    }
+
+    private int generateGroups(Position position, Piece.Color color, int target, long[] captures, int count) {
+        int neighborhood = position.neighborhood(color, target);
+        if (Integer.bitCount(neighborhood) < 2) {
+            return count;
+        }
+        // Deceit takes two neighbors at the same distance: both vertical, both horizontal or both diagonal
+        for (int pair = 0; pair < DECEIT_PAIRS.length; pair += 2) {
+            if ((neighborhood >>> DECEIT_PAIRS[pair] & neighborhood >>> DECEIT_PAIRS[pair + 1] & 1) != 0) {
+                int a = Position.neighbor(target, DECEIT_PAIRS[pair]);
+                int b = Position.neighbor(target, DECEIT_PAIRS[pair + 1]);
+                int component = CaptureTable.deceit(position.get(target), position.get(a), position.get(b));
+                if (component > -2) {
+                    captures[count++] = Capture.withCapturer(Capture.withCapturer(Capture.encode(BoardGame.CaptureResult.DECEIT, target, component), a), b);
+                }
+            }
+        }
+        return Siege.generate(position, color, target, captures, count);
+    }
+}
@@ -0,0 +1,282 @@
+import java.util.Arrays;
+
+/**
+ * Precomputed answers to the arithmetic capture rules.
+ * Every number used by the default board state and by the {@link Perfecta} components gets an index below 64, so a set
+ * of numbers (such as the components left in a Perfecta) is a single {@code long} mask and matching two sets is a mask
+ * intersection. Numbers outside this set are still supported through the plain arithmetic rules.
+ */
+public class CaptureTable {
+    /**
+     * The numbers of the default board state and of the Perfecta components, in ascending order.
+     */
+    static final int[] NUMBERS = {1, 2, 3, 4, 5, 6, 7, 8, 9, 12, 15, 16, 20, 25, 28, 30, 36, 42, 45, 49, 56, 64, 66, 72, 81, 90, 100, 120, 121, 153, 169, 225, 289, 361};
+
+    /**
+     * The largest value {@code |distance| + 1} can take on the board.
+     */
+    static final int MAX_SPACES = Position.ROWS;
+
+    private static final int[] INDEX = new int[NUMBERS[NUMBERS.length - 1] + 1];
+    private static final long[] ERUPTION = new long[NUMBERS.length * (MAX_SPACES + 1)];
+    private static final long[] DECEIT = new long[NUMBERS.length * NUMBERS.length];
+    private static final long[] ERUPTERS = new long[NUMBERS.length];
+    private static final long[] ERUPTED = new long[NUMBERS.length];
+
+    static {
+        Arrays.fill(INDEX, -1);
+        for (int index = 0; index < NUMBERS.length; index++) {
+            INDEX[NUMBERS[index]] = index;
+        }
+        for (int capturer = 0; capturer < NUMBERS.length; capturer++) {
+            for (int spaces = 1; spaces <= MAX_SPACES; spaces++) {
+                long targets = 0;
+                for (int target = 0; target < NUMBERS.length; target++) {
+                    if (eruptionRule(NUMBERS[capturer], NUMBERS[target], spaces)) {
+                        targets |= 1L << target;
+                    }
+                }
+                ERUPTION[capturer * (MAX_SPACES + 1) + spaces] = targets;
+                ERUPTED[capturer] |= targets;
+                while (targets != 0) {
+                    ERUPTERS[Long.numberOfTrailingZeros(targets)] |= 1L << capturer;
+                    targets &= targets - 1;
+                }
+            }
+            for (int other = 0; other < NUMBERS.length; other++) {
+                DECEIT[capturer * NUMBERS.length + other] = bit(NUMBERS[capturer] + NUMBERS[other]);
+            }
+        }
+    }
+
+    private CaptureTable() {
+    }
+
+    /**
+     * Get the index of a number in {@link #NUMBERS}.
+     *
+     * @param number The number to look up
+     * @return The index of the number, or -1 if the number is not in the table
+     */
+    static int index(int number) {
+        return number >= 0 && number < INDEX.length ? INDEX[number] : -1;
+    }
+
+    /**
+     * Get the mask holding a single number.
+     *
+     * @param number The number to look up
+     * @return The mask of the number, or 0 if the number is not in the table
+     */
+    static long bit(int number) {
+        int index = index(number);
+        return index < 0 ? 0 : 1L << index;
+    }
+
+    /**
+     * Get the numbers a piece counts as when it captures or is captured.
+     *
+     * @param piece The piece
+     * @return The mask of the components of a Perfecta, or of the number of any other piece
+     */
+    static long numbers(Piece piece) {
+        if (piece.getShape() != Piece.Shape.PERFECTA) {
+            return bit(piece.getNumber());
+        }
+        return ((Perfecta) piece).getNumbers();
+    }
+
+    /**
+     * Check whether a number captures another by Eruption at the given spacing.
+     *
+     * @param capturer The number of the capturing piece
+     * @param target   The number of the captured piece
+     * @param spaces   The distance between the pieces along one axis, plus one
+     * @return {@code true} if the capture succeeds
+     */
+    static boolean erupts(int capturer, int target, int spaces) {
+        int capturerIndex = index(capturer);
+        int targetIndex = index(target);
+        if (capturerIndex < 0 || targetIndex < 0 || spaces > MAX_SPACES) {
+            return eruptionRule(capturer, target, spaces);
+        }
+        return (ERUPTION[capturerIndex * (MAX_SPACES + 1) + spaces] >>> targetIndex & 1) != 0;
+    }
+
+    /**
+     * Get every number of the table that a number captures by Eruption at the given spacing.
+     *
+     * @param capturerIndex The index of the capturing number
+     * @param spaces        The distance between the pieces along one axis, plus one
+     * @return The mask of the numbers that can be captured
+     */
+    static long eruptionTargets(int capturerIndex, int spaces) {
+        return ERUPTION[capturerIndex * (MAX_SPACES + 1) + spaces];
+    }
+
+    /**
+     * Get every number of the table that captures one of the given numbers by Eruption at some spacing on the board.
+     *
+     * @param targets The mask of the numbers to capture
+     * @return The mask of the numbers that may capture one of them, depending on the spacing
+     */
+    static long eruptionCapturers(long targets) {
+        long capturers = 0;
+        while (targets != 0) {
+            capturers |= ERUPTERS[Long.numberOfTrailingZeros(targets)];
+            targets &= targets - 1;
+        }
+        return capturers;
+    }
+
+    /**
+     * Get every number of the table that one of the given numbers captures by Eruption at some spacing on the board.
+     *
+     * @param capturers The mask of the capturing numbers
+     * @return The mask of the numbers that may be captured, depending on the spacing
+     */
+    static long eruptedBy(long capturers) {
+        long targets = 0;
+        while (capturers != 0) {
+            targets |= ERUPTED[Long.numberOfTrailingZeros(capturers)];
+            capturers &= capturers - 1;
+        }
+        return targets;
+    }
+
+    /**
+     * Get the number of the table that two numbers capture together by Deceit.
+     *
+     * @param firstIndex  The index of the first capturing number
+     * @param secondIndex The index of the second capturing number
+     * @return The mask of the sum of the two numbers, or 0 if the sum is not in the table
+     */
+    static long deceitTargets(int firstIndex, int secondIndex) {
+        return DECEIT[firstIndex * NUMBERS.length + secondIndex];
+    }
+
+    /**
+     * Check whether a capture by Encounter succeeds.
+     *
+     * @param target   The piece to capture
+     * @param capturer The piece to capture with
+     * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
+     */
+    static int encounter(Piece target, Piece capturer) {
+        if (!covers(target) || !covers(capturer)) {
+            return slowCapture(target, capturer, null, 0, 0);
+        }
+        return result(target, numbers(capturer) & numbers(target));
+    }
+
+    /**
+     * Check whether a capture by Eruption succeeds.
+     *
+     * @param target   The piece to capture
+     * @param capturer The piece to capture with
+     * @param spacesI  The distance between the pieces along i, plus one
+     * @param spacesJ  The distance between the pieces along j, plus one
+     * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
+     */
+    static int eruption(Piece target, Piece capturer, int spacesI, int spacesJ) {
+        if (!covers(target) || !covers(capturer)) {
+            return slowCapture(target, capturer, null, spacesI, spacesJ);
+        }
+        long targets = numbers(target);
+        long capturers = numbers(capturer);
+        while (capturers != 0) {
+            int capturerIndex = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            long hits = (eruptionTargets(capturerIndex, spacesI) | eruptionTargets(capturerIndex, spacesJ)) & targets;
+            if (hits != 0) {
+                return result(target, hits);
+            }
+        }
+        return -2;
+    }
+
+    /**
+     * Check whether a capture by Deceit succeeds, leaving the adjacency test to the caller.
+     *
+     * @param target The piece to capture
+     * @param first  The first piece to capture with
+     * @param second The second piece to capture with
+     * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
+     */
+    static int deceit(Piece target, Piece first, Piece second) {
+        if (!covers(target) || !covers(first) || !covers(second)) {
+            return slowCapture(target, first, second, 0, 0);
+        }
+        long targets = numbers(target);
+        long firsts = numbers(first);
+        long seconds = numbers(second);
+        while (firsts != 0) {
+            int firstIndex = Long.numberOfTrailingZeros(firsts);
+            firsts &= firsts - 1;
+            long others = seconds;
+            while (others != 0) {
+                int secondIndex = Long.numberOfTrailingZeros(others);
+                others &= others - 1;
+                long hits = deceitTargets(firstIndex, secondIndex) & targets;
+                if (hits != 0) {
+                    return result(target, hits);
+                }
+            }
+        }
+        return -2;
+    }
+
+    private static boolean covers(Piece piece) {
+        return piece.getShape() == Piece.Shape.PERFECTA || index(piece.getNumber()) >= 0;
+    }
+
+    private static int result(Piece target, long hits) {
+        if (hits == 0) {
+            return -2;
+        } else if (target.getShape() != Piece.Shape.PERFECTA) {
+            return -1;
+        }
+        // The components of a Perfecta are kept in ascending order, like the table
+        return Long.bitCount(numbers(target) & (Long.lowestOneBit(hits) - 1));
+    }
+
+    private static boolean eruptionRule(int capturer, int target, int spaces) {
+        return capturer * spaces == target || capturer == target * spaces || spaces == target * capturer;
+    }
+
+    /**
+     * Applies the capture rules number by number, for pieces whose numbers are not in the table.
+     * Encounter is checked when {@code second} is {@code null} and {@code spacesI} is 0, Eruption when {@code second}
+     * is {@code null} and Deceit otherwise.
+     */
+    private static int slowCapture(Piece target, Piece first, Piece second, int spacesI, int spacesJ) {
+        for (int firstComponent = 0; firstComponent < count(first); firstComponent++) {
+            int firstNumber = numberAt(first, firstComponent);
+            for (int secondComponent = 0; secondComponent < (second == null ? 1 : count(second)); secondComponent++) {
+                for (int targetComponent = 0; targetComponent < count(target); targetComponent++) {
+                    int targetNumber = numberAt(target, targetComponent);
+                    boolean captured;
+                    if (second != null) {
+                        captured = firstNumber + numberAt(second, secondComponent) == targetNumber;
+                    } else if (spacesI == 0) {
+                        captured = firstNumber == targetNumber;
+                    } else {
+                        captured = eruptionRule(firstNumber, targetNumber, spacesI) || eruptionRule(firstNumber, targetNumber, spacesJ);
+                    }
+                    if (captured) {
+                        return target.getShape() == Piece.Shape.PERFECTA ? targetComponent : -1;
+                    }
+                }
+            }
+        }
+        return -2;
+    }
+
+    private static int count(Piece piece) {
+        return piece.getShape() == Piece.Shape.PERFECTA ? ((Perfecta) piece).getComponentCount() : 1;
+    }
+
+    private static int numberAt(Piece piece, int component) {
+        return piece.getShape() == Piece.Shape.PERFECTA ? ((Perfecta) piece).getComponent(component).getNumber() : piece.getNumber();
+    }
+}
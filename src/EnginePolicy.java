@@ -0,0 +1,33 @@
+import java.util.SplittableRandom;
+
+/**
+ * Plays the ply chosen by a {@link SearchEngine} limited by depth and nodes only, so that its games can be replayed.
+ */
+public class EnginePolicy implements Policy {
+    private final TranspositionTable table;
+    private final SearchEngine engine;
+    private final int depth;
+    private final long maxNodes;
+
+    /**
+     * Creates an engine policy.
+     *
+     * @param depth          The search depth
+     * @param maxNodes       The node budget of each search
+     * @param tableMegabytes The size of the transposition table in megabytes
+     */
+    public EnginePolicy(int depth, long maxNodes, int tableMegabytes) {
+        this.table = new TranspositionTable(tableMegabytes);
+        this.engine = new SearchEngine(table);
+        this.depth = depth;
+        this.maxNodes = maxNodes;
+    }
+
+    public long choosePly(Board board, Piece.Color color, SplittableRandom random) {
+        return engine.search(board, color, depth, SearchEngine.NO_TIME_LIMIT, maxNodes).getBestPly();
+    }
+
+    public void newGame() {
+        table.clear();
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * The weights of the terms of an {@link Evaluator}. Captures are worth {@link #getCaptures()} points each; the other
+ * terms are in eighths of a point ({@link Evaluator#SCALE}), so that a whole number of the piece sum stays small
+ * next to a capture.
+ */
+public class EvaluationWeights {
+    /**
+     * The weights the engine has always used: captures first, then the sum of the numbers on the board.
+     */
+    public static final EvaluationWeights DEFAULT = new EvaluationWeights(256, 1, 0, 0, 0);
+
+    private final int captures;
+    private final int material;
+    private final int perfectaComponents;
+    private final int mobility;
+    private final int siegeThreats;
+
+    /**
+     * Creates a set of weights.
+     *
+     * @param captures           Points for each capture made
+     * @param material           Eighths of a point for each unit of the sum of the numbers on the board
+     * @param perfectaComponents Eighths of a point for each component left in the Perfecta
+     * @param mobility           Eighths of a point for each unit of movement of the pieces
+     * @param siegeThreats       Eighths of a point lost for each piece one piece away from a siege
+     */
+    public EvaluationWeights(int captures, int material, int perfectaComponents, int mobility, int siegeThreats) {
+        this.captures = captures;
+        this.material = material;
+        this.perfectaComponents = perfectaComponents;
+        this.mobility = mobility;
+        this.siegeThreats = siegeThreats;
+    }
+
+    public int getCaptures() {
+        return captures;
+    }
+
+    public int getMaterial() {
+        return material;
+    }
+
+    public int getPerfectaComponents() {
+        return perfectaComponents;
+    }
+
+    public int getMobility() {
+        return mobility;
+    }
+
+    public int getSiegeThreats() {
+        return siegeThreats;
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Static evaluation of a {@link Board} kept as running totals per color: the sum of the numbers on the board, the
+ * components left in the Perfecta, the movement of the pieces and the pieces one enemy piece away from a siege.
+ * The evaluator listens to the board and marks the changed squares; an evaluation first updates the totals of the
+ * marked squares and the siege status of their neighbors, then combines the totals with the
+ * {@link EvaluationWeights}. Marking is a single bit, since search makes and takes back many moves between two
+ * evaluations, often on the same squares.
+ * <p>
+ * A piece counts as threatened by a siege when every orthogonal neighbor but one holds an enemy piece, on the edge and
+ * in the corner as well as in the middle of the board, or when every diagonal neighbor but one does away from the
+ * edges. The movement of a piece is the sum of the amounts it can move by.
+ */
+public class Evaluator implements BoardListener {
+    /**
+     * The divisor of every weight but the capture weight.
+     */
+    public static final int SCALE = 8;
+
+    private static final Piece.Color[] COLORS = Piece.Color.values();
+
+    private final Board board;
+    private final Position position;
+    private final EvaluationWeights weights;
+    private final int[] material = new int[COLORS.length];
+    private final int[] components = new int[COLORS.length];
+    private final int[] mobility = new int[COLORS.length];
+    private final int[] siegeThreats = new int[COLORS.length];
+    private final Piece[] counted = new Piece[Position.SQUARES];
+    private final int[] countedNumbers = new int[Position.SQUARES];
+    private final int[] countedComponents = new int[Position.SQUARES];
+    private final int[] countedMobility = new int[Position.SQUARES];
+    private final byte[] threatened = new byte[Position.SQUARES];
+    private final long[] changed = new long[2];
+
+    /**
+     * Creates the evaluator of a board and starts listening to it.
+     *
+     * @param board   The board to evaluate
+     * @param weights The weights of the terms
+     */
+    public Evaluator(Board board, EvaluationWeights weights) {
+        this.board = board;
+        this.position = board.getPosition();
+        this.weights = weights;
+        for (int square = 0; square < Position.SQUARES; square++) {
+            this.count(square);
+            this.countThreat(square);
+        }
+        board.addListener(this);
+    }
+
+    /**
+     * Stops following the board. The evaluator must not be used afterwards.
+     */
+    public void detach() {
+        board.removeListener(this);
+    }
+
+    /**
+     * Scores the board from the point of view of one color.
+     *
+     * @param color The color to score for
+     * @return The weighted difference between the terms of {@code color} and of the other color
+     */
+    public int evaluate(Piece.Color color) {
+        this.update();
+        int us = color.ordinal();
+        int them = color.opposite().ordinal();
+        int scaled = weights.getMaterial() * (material[us] - material[them])
+                + weights.getPerfectaComponents() * (components[us] - components[them])
+                + weights.getMobility() * (mobility[us] - mobility[them])
+                - weights.getSiegeThreats() * (siegeThreats[us] - siegeThreats[them]);
+        return weights.getCaptures() * (board.getCaptures(color) - board.getCaptures(color.opposite())) + scaled / SCALE;
+    }
+
+    public int getMaterial(Piece.Color color) {
+        this.update();
+        return material[color.ordinal()];
+    }
+
+    public int getPerfectaComponents(Piece.Color color) {
+        this.update();
+        return components[color.ordinal()];
+    }
+
+    public int getMobility(Piece.Color color) {
+        this.update();
+        return mobility[color.ordinal()];
+    }
+
+    public int getSiegeThreats(Piece.Color color) {
+        this.update();
+        return siegeThreats[color.ordinal()];
+    }
+
+    @Override
+    public void squareChanged(int square, Piece piece) {
+        changed[square >>> 6] |= 1L << square;
+    }
+
+    /**
+     * Counts the squares changed since the last update again, and the siege status of their neighborhoods.
+     */
+    private void update() {
+        long threatLo = 0;
+        long threatHi = 0;
+        for (int half = 0; half < 2; half++) {
+            while (changed[half] != 0) {
+                int square = half << 6 | Long.numberOfTrailingZeros(changed[half]);
+                changed[half] &= changed[half] - 1;
+                this.count(square);
+                threatLo |= 1L << square & -(1 - half) | Position.orthogonalNeighbors(square, 0) | Position.diagonalNeighbors(square, 0);
+                threatHi |= 1L << square & -half | Position.orthogonalNeighbors(square, 1) | Position.diagonalNeighbors(square, 1);
+            }
+        }
+        while (threatLo != 0) {
+            this.countThreat(Long.numberOfTrailingZeros(threatLo));
+            threatLo &= threatLo - 1;
+        }
+        while (threatHi != 0) {
+            this.countThreat(64 | Long.numberOfTrailingZeros(threatHi));
+            threatHi &= threatHi - 1;
+        }
+    }
+
+    /**
+     * Replaces what a square adds to the totals with what its piece adds now.
+     */
+    private void count(int square) {
+        if (counted[square] != null) {
+            int color = counted[square].getColor().ordinal();
+            material[color] -= countedNumbers[square];
+            components[color] -= countedComponents[square];
+            mobility[color] -= countedMobility[square];
+        }
+        Piece piece = position.get(square);
+        counted[square] = piece;
+        if (piece == null) {
+            return;
+        }
+        int color = piece.getColor().ordinal();
+        countedNumbers[square] = piece.getNumber();
+        countedComponents[square] = piece.getShape() == Piece.Shape.PERFECTA ? ((Perfecta) piece).getComponentCount() : 0;
+        countedMobility[square] = 0;
+        for (int amount = 1; amount <= 3; amount++) {
+            if (piece.validMovement(amount)) {
+                countedMobility[square] += amount;
+            }
+        }
+        material[color] += countedNumbers[square];
+        components[color] += countedComponents[square];
+        mobility[color] += countedMobility[square];
+    }
+
+    /**
+     * Replaces the siege status of a square with its status now.
+     */
+    private void countThreat(int square) {
+        if (threatened[square] != 0) {
+            siegeThreats[threatened[square] - 1]--;
+            threatened[square] = 0;
+        }
+        Piece piece = position.get(square);
+        if (piece == null) {
+            return;
+        }
+        Piece.Color enemy = piece.getColor().opposite();
+        if (this.almostSurrounded(Position.orthogonalNeighbors(square, 0), Position.orthogonalNeighbors(square, 1), enemy)
+                || Long.bitCount(Position.diagonalNeighbors(square, 0)) + Long.bitCount(Position.diagonalNeighbors(square, 1)) == 4
+                && this.almostSurrounded(Position.diagonalNeighbors(square, 0), Position.diagonalNeighbors(square, 1), enemy)) {
+            threatened[square] = (byte) (piece.getColor().ordinal() + 1);
+            siegeThreats[piece.getColor().ordinal()]++;
+        }
+    }
+
+    private boolean almostSurrounded(long lo, long hi, Piece.Color enemy) {
+        int free = Long.bitCount(lo & ~position.occupied(enemy, 0)) + Long.bitCount(hi & ~position.occupied(enemy, 1));
+        return Long.bitCount(lo) + Long.bitCount(hi) >= 2 && free <= 1;
+    }
+}
@@ -1,4 +1,5 @@
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.Scanner;
 
@@ -8,6 +9,10 @@ import java.util.Scanner;
  * @author Yann Quinard
  */
 public class Game {
+    private static final Piece.Color ENGINE_COLOR = Piece.Color.WHITE;
+    private static final int ENGINE_TABLE_MEGABYTES = 64;
+    private static final long ENGINE_TIME_MILLIS = 5000;
+
     public static void main(String[] args) {
         System.out.println("Starting new game! How many pieces would you like to play up to?");
         Scanner scan = new Scanner(System.in);
@@ -19,39 +24,60 @@ public class Game {
             System.exit(1);
         }
         Board board = new Board(winCon);
+        board.setRansomPolicy(consoleRansomPolicy(scan));
+        System.out.println("Would you like to play against the computer?");
+        SearchEngine engine = scan.next().toLowerCase().startsWith("y") ? new SearchEngine(new TranspositionTable(ENGINE_TABLE_MEGABYTES)) : null;
+        if (engine != null) {
+            loadEngineFiles(engine, args);
+        }
         Piece.Color turn = Piece.Color.BLACK;
+        AttackMap threats = new AttackMap(board);
+        long[] captures = new long[CaptureGenerator.MAX_CAPTURES];
 
         while (!board.gameEnded()) {
             System.out.println(board);
             System.out.println("It is " + turn + "'s turn to play.");
+            printThreats(threats, turn);
+            if (engine != null && turn == ENGINE_COLOR) {
+                playEngineTurn(board, engine, turn);
+                turn = turn.opposite();
+                continue;
+            }
             System.out.println("Please enter you move in the form: [x] [y] [number of spaces] [direction]. Direction must be either \"up\", \"down\", \"left\", \"right\", \"diagonalupleft\", \"diagonalupright\", \"diagonaldownleft\", or \"diagonaldownright\".");
             boolean moved;
             try {
-                moved = board.move(scan.nextInt(), scan.nextInt(), scan.nextInt(), BoardGame.Direction.valueOf(scan.next().toUpperCase()), turn);
+                BoardGame.MoveResult moveResult = board.tryMove(scan.nextInt(), scan.nextInt(), scan.nextInt(), BoardGame.Direction.valueOf(scan.next().toUpperCase()), turn);
+                moved = moveResult == BoardGame.MoveResult.VALID;
+                if (!moved) {
+                    System.out.println(moveResult.getMessage());
+                }
+                printCaptures(board, turn, captures);
                 System.out.println("Would you like to capture?");
                 String capture = scan.next().toLowerCase();
                 if (capture.equals("yes") || capture.equals("y")) {
                     boolean captured = false;
                     while (!scan.next().contains("cancel") && !captured) {
                         System.out.println("Please enter you capture in the form: [number of pieces to capture with] [capturing piece #1 x] [capturing piece #1 y] [capturing piece #1 x] [capturing piece #2 y]...[captured piece x] [captured piece y].");
-                        ArrayList<Piece> capturingPieces = new ArrayList<>();
+                        long capturers = 0;
                         int numPieces = scan.nextInt();
+                        int found = 0;
                         for (int i = 0; i < numPieces; i++) {
-                            Piece piece = board.getBoardPiece(scan.nextInt(), scan.nextInt(), true);
-                            if (Objects.isNull(piece)) {
+                            int x = scan.nextInt();
+                            int y = scan.nextInt();
+                            if (Objects.isNull(board.getBoardPiece(x, y, true))) {
                                 System.out.println("Invalid format!");
                                 continue;
                             }
-                            capturingPieces.add(piece);
-                        }
-                        captured = board.capture(capturingPieces, scan.nextInt(), scan.nextInt(), turn);
-                        if (moved) {
-                            if (turn == Piece.Color.WHITE) {
-                                board.incrementWhiteCaptured();
-                            } else {
-                                board.incrementBlackCaptured();
+                            if (found++ < Capture.MAX_CAPTURING_PIECES) {
+                                capturers = Capture.withCapturer(capturers, Position.square(16 - y, x - 1));
                             }
                         }
+                        int capturedJ = scan.nextInt() - 1;
+                        int capturedI = 16 - scan.nextInt();
+                        int target = Position.onBoard(capturedI, capturedJ) ? Position.square(capturedI, capturedJ) : -1;
+                        BoardGame.CaptureResult captureResult = found > Capture.MAX_CAPTURING_PIECES ? BoardGame.CaptureResult.TOO_MANY_PIECES : board.tryCapture(capturers, target, turn);
+                        captured = captureResult.isSuccess();
+                        System.out.println(captureResult.getMessage());
                     }
                 }
             } catch (Exception e) {
@@ -66,6 +92,116 @@ public class Game {
                 }
             }
         }
+        System.out.println(board.getWinner() == Piece.Color.BLACK ? "Black wins!" : "White wins!");
         scan.close();
     }
+
+    /**
+     * Prints the pieces each color can capture right now, as [x] [y] pairs.
+     *
+     * @param threats The attack map of the board
+     * @param turn    The color to play
+     */
+    private static void printThreats(AttackMap threats, Piece.Color turn) {
+        for (Piece.Color owner : new Piece.Color[]{turn.opposite(), turn}) {
+            StringBuilder squares = new StringBuilder();
+            for (int half = 0; half < 2; half++) {
+                long threatened = threats.getThreatened(owner, half);
+                while (threatened != 0) {
+                    int square = half << 6 | Long.numberOfTrailingZeros(threatened);
+                    threatened &= threatened - 1;
+                    squares.append(" (").append(Position.column(square) + 1).append(' ').append(16 - Position.row(square)).append(')');
+                }
+            }
+            if (!squares.isEmpty()) {
+                System.out.println(owner.opposite() + " can capture" + squares);
+            }
+        }
+    }
+
+    /**
+     * Prints the captures the player can make now, in the form the capture prompt reads.
+     *
+     * @param board    The board to look at
+     * @param turn     The color to play
+     * @param captures The buffer to list the captures in
+     */
+    private static void printCaptures(Board board, Piece.Color turn, long[] captures) {
+        int count = board.enumerateCaptures(turn, captures);
+        if (count > 0) {
+            System.out.println("Available captures:");
+        }
+        for (int index = 0; index < count; index++) {
+            System.out.println("  " + Capture.toString(captures[index]));
+        }
+    }
+
+    /**
+     * Gives the engine the files named on the command line: {@code --book FILE} for an {@link OpeningBook} and
+     * {@code --tablebase FILE}, repeated as needed, for each {@link Tablebase}.
+     *
+     * @param engine The engine to give the files to
+     * @param args   The command line arguments
+     */
+    private static void loadEngineFiles(SearchEngine engine, String[] args) {
+        for (int arg = 0; arg + 1 < args.length; arg += 2) {
+            try {
+                switch (args[arg]) {
+                    case "--book" -> engine.setBook(new OpeningBook(Path.of(args[arg + 1])));
+                    case "--tablebase" -> engine.addTablebase(new Tablebase(Path.of(args[arg + 1])));
+                    default -> System.out.println("Unknown option: " + args[arg]);
+                }
+            } catch (IOException e) {
+                System.out.println("Could not open " + args[arg + 1] + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lets the engine search and play its turn through the same checked methods as a human player, so that the owner
+     * of a captured Perfecta is still asked for a ransom.
+     *
+     * @param board  The board to play on
+     * @param engine The engine choosing the ply
+     * @param turn   The color the engine plays
+     */
+    private static void playEngineTurn(Board board, SearchEngine engine, Piece.Color turn) {
+        SearchResult result = engine.search(board, turn, SearchEngine.MAX_DEPTH, ENGINE_TIME_MILLIS, Long.MAX_VALUE);
+        System.out.println("Computer: " + result);
+        long ply = result.getBestPly();
+        if (Ply.move(ply) != 0) {
+            board.move(Ply.move(ply), turn);
+        }
+        long capture = Ply.capture(ply);
+        if (capture != 0) {
+            System.out.println(board.tryCapture(capture, Capture.target(capture), turn).getMessage());
+        }
+    }
+
+    /**
+     * Creates a {@link RansomPolicy} that asks the owner of the Perfecta on the console.
+     *
+     * @param scan The scanner reading the players' input
+     * @return The console ransom policy
+     */
+    private static RansomPolicy consoleRansomPolicy(Scanner scan) {
+        return (board, perfectaSquare, owner) -> {
+            System.out.println("Would you like to pay ransom for your Perfecta?");
+            if (!scan.next().contains("y")) {
+                return -1;
+            }
+            while (true) {
+                System.out.println("What piece would you like to ransom?");
+                int pieceX = scan.nextInt();
+                int pieceY = scan.nextInt();
+                Piece ransom = board.getBoardPiece(pieceX, pieceY, true);
+                int ransomSquare = Position.square(16 - pieceY, pieceX - 1);
+                if (Objects.isNull(ransom) || ransom.getColor() != owner || ransomSquare == perfectaSquare) {
+                    System.out.println("Invalid ransom: Please enter a valid piece!");
+                } else {
+                    return ransomSquare;
+                }
+            }
+        };
+    }
 }
@@ -0,0 +1,215 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Scans a file written by {@link GameRecordWriter} one game at a time, reading straight from memory-mapped windows of
+ * the file. Files of any size are read through windows of up to {@link #WINDOW_BYTES}, each starting at a game.
+ * Nothing is allocated per game or per ply unless {@link #createBoard()} is called.
+ */
+public class GameRecordReader implements Closeable {
+    static final int WINDOW_BYTES = 1 << 30;
+
+    private static final Piece.Shape[] SHAPES = Piece.Shape.values();
+    private static final Piece.Color[] COLORS = Piece.Color.values();
+    private static final BoardGame.CaptureResult[] RULES = BoardGame.CaptureResult.values();
+    private static final BoardGame.Direction[] DIRECTIONS = BoardGame.Direction.values();
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long nextGame = GameRecordWriter.FILE_HEADER_BYTES;
+    private long games;
+    private int gameStart;
+    private int winCon;
+    private int flags;
+    private int plyCount;
+    private int pliesRead;
+
+    /**
+     * Opens a record file for reading.
+     *
+     * @param path The record file
+     * @throws IOException If the file cannot be opened or is not a record file
+     */
+    public GameRecordReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        checkHeader(channel);
+    }
+
+    static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(GameRecordWriter.FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) != GameRecordWriter.FILE_HEADER_BYTES || header.getInt(0) != GameRecordWriter.MAGIC) {
+            throw new IOException("Not a game record file");
+        } else if (header.get(4) != GameRecordWriter.VERSION) {
+            throw new IOException("Unsupported game record version " + header.get(4));
+        }
+    }
+
+    /**
+     * Moves on to the next game, skipping whatever is left of the current one.
+     *
+     * @return {@code false} if there are no more games
+     * @throws IOException If the file cannot be mapped or a game is cut short
+     */
+    public boolean nextGame() throws IOException {
+        if (nextGame + Integer.BYTES > size) {
+            if (nextGame != size) {
+                throw new IOException("Truncated game record at offset " + nextGame);
+            }
+            return false;
+        }
+        this.map(nextGame, Integer.BYTES);
+        int length = window.getInt((int) (nextGame - windowStart));
+        if (length < 7 || nextGame + Integer.BYTES + length > size) {
+            throw new IOException("Corrupt game record at offset " + nextGame);
+        }
+        this.map(nextGame, Integer.BYTES + length);
+        gameStart = (int) (nextGame - windowStart);
+        nextGame += Integer.BYTES + length;
+        winCon = Short.toUnsignedInt(window.getShort(gameStart + 4));
+        flags = window.get(gameStart + 6);
+        plyCount = window.getInt(gameStart + 7);
+        pliesRead = 0;
+        window.position(gameStart + 11);
+        if ((flags & GameRecordWriter.CUSTOM_POSITION) != 0) {
+            int pieces = Byte.toUnsignedInt(window.get(gameStart + 13));
+            window.position(gameStart + 14);
+            for (int piece = 0; piece < pieces; piece++) {
+                window.get();
+                int kind = window.get();
+                window.position(window.position() + (SHAPES[kind & 0x3] == Piece.Shape.PERFECTA ? 1 : 2));
+            }
+        }
+        games++;
+        return true;
+    }
+
+    /**
+     * Makes sure the window covers {@code length} bytes from {@code offset}, mapping a new window starting there if not.
+     */
+    private void map(long offset, int length) throws IOException {
+        if (window != null && offset >= windowStart && offset + length <= windowStart + window.limit()) {
+            return;
+        }
+        long mapped = Math.min(size - offset, Math.max(WINDOW_BYTES, length));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, mapped);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        windowStart = offset;
+    }
+
+    /**
+     * Get the number of games read so far, including the current one.
+     *
+     * @return The index of the current game plus one
+     */
+    public long getGames() {
+        return games;
+    }
+
+    public int getWinCon() {
+        return winCon;
+    }
+
+    public Piece.Color getFirstColor() {
+        return (flags & GameRecordWriter.WHITE_FIRST) != 0 ? Piece.Color.WHITE : Piece.Color.BLACK;
+    }
+
+    /**
+     * Get the result of the current game.
+     *
+     * @return The winning color, or {@code null} if the game ended without a winner
+     */
+    public Piece.Color getWinner() {
+        int result = flags >>> GameRecordWriter.RESULT_SHIFT & 0x3;
+        return result == 0 ? null : result == 1 ? Piece.Color.BLACK : Piece.Color.WHITE;
+    }
+
+    public boolean hasCustomPosition() {
+        return (flags & GameRecordWriter.CUSTOM_POSITION) != 0;
+    }
+
+    public int getPlyCount() {
+        return plyCount;
+    }
+
+    /**
+     * Creates the board the current game started from.
+     *
+     * @return A new board holding the starting position
+     */
+    public Board createBoard() {
+        if (!this.hasCustomPosition()) {
+            return new Board(winCon);
+        }
+        int offset = gameStart + 11;
+        int blackCaptures = Byte.toUnsignedInt(window.get(offset));
+        int whiteCaptures = Byte.toUnsignedInt(window.get(offset + 1));
+        int pieces = Byte.toUnsignedInt(window.get(offset + 2));
+        offset += 3;
+        Piece[][] grid = new Piece[Position.ROWS][Position.COLUMNS];
+        for (int piece = 0; piece < pieces; piece++) {
+            int square = Byte.toUnsignedInt(window.get(offset));
+            int kind = window.get(offset + 1);
+            Piece.Color color = COLORS[kind >>> 2 & 0x1];
+            Piece.Shape shape = SHAPES[kind & 0x3];
+            int i = Position.row(square);
+            int j = Position.column(square);
+            if (shape == Piece.Shape.PERFECTA) {
+                int mask = Byte.toUnsignedInt(window.get(offset + 2));
+                grid[i][j] = Perfecta.of(color, mask);
+                offset += 3;
+            } else {
+                grid[i][j] = Piece.of(Short.toUnsignedInt(window.getShort(offset + 2)), shape, color);
+                offset += 4;
+            }
+        }
+        Board board = new Board(winCon, grid);
+        for (int capture = 0; capture < blackCaptures; capture++) {
+            board.incrementBlackCaptured();
+        }
+        for (int capture = 0; capture < whiteCaptures; capture++) {
+            board.incrementWhiteCaptured();
+        }
+        return board;
+    }
+
+    public boolean hasNextPly() {
+        return pliesRead < plyCount;
+    }
+
+    /**
+     * Read the next ply of the current game.
+     *
+     * @return The ply encoded by {@link Ply}
+     */
+    public long nextPly() {
+        pliesRead++;
+        int word = Short.toUnsignedInt(window.getShort());
+        int distance = word >>> 7 & 0x3;
+        int move = distance == 0 ? 0 : Move.encode(word & 0x7F, distance, DIRECTIONS[word >>> 9 & 0x7]);
+        long capture = 0;
+        if ((word & GameRecordWriter.HAS_CAPTURE) != 0) {
+            int target = Byte.toUnsignedInt(window.get());
+            int details = Byte.toUnsignedInt(window.get());
+            capture = Capture.encode(RULES[details & 0x7], target, (details >>> 3 & 0x7) - 1);
+            for (int index = 0; index <= details >>> 6; index++) {
+                capture = Capture.withCapturer(capture, Byte.toUnsignedInt(window.get()));
+            }
+        }
+        return Ply.encode(move, capture);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,142 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends finished games to a binary game-record file, read back by {@link GameRecordReader}.
+ * <p>
+ * A file starts with the magic number {@code RITH} and a version byte, followed by the games, little endian:
+ * <ul>
+ *     <li>the length of the rest of the game in bytes (4 bytes)</li>
+ *     <li>the number of captures required to win (2 bytes)</li>
+ *     <li>flags (1 byte): bit 0 set if white moves first, bits 1-2 the result (0 for no winner, 1 if black won and 2
+ *     if white won), bit 3 set if the game starts from a position other than the default board state</li>
+ *     <li>the number of plies (4 bytes)</li>
+ *     <li>for a custom starting position: the captures already made by black and by white (1 byte each), the number
+ *     of pieces (1 byte), and for each piece its square (1 byte), its color and shape ({@code color << 2 | shape},
+ *     1 byte) and either its number (2 bytes) or, for a Perfecta, the mask of its remaining components (1 byte)</li>
+ *     <li>the plies, each one a word (2 bytes) holding the square moved from in bits 0-6, the distance in bits 7-8 (0
+ *     when the color could not move), the direction in bits 9-11 and in bit 12 whether a capture follows; a capture
+ *     is the target square (1 byte), a byte holding the rule in bits 0-2, the Perfecta component plus one in bits 3-5
+ *     and the number of capturing pieces minus one in bits 6-7, and the square of every capturing piece (1 byte
+ *     each)</li>
+ * </ul>
+ * Games can be written from several threads; each game is written whole.
+ */
+public class GameRecordWriter implements Closeable {
+    static final int MAGIC = 'R' | 'I' << 8 | 'T' << 16 | 'H' << 24;
+    static final byte VERSION = 1;
+    static final int FILE_HEADER_BYTES = 5;
+    static final int WHITE_FIRST = 1;
+    static final int RESULT_SHIFT = 1;
+    static final int CUSTOM_POSITION = 1 << 3;
+    static final int HAS_CAPTURE = 1 << 12;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Opens a record file for appending, creating it with its header if it does not exist.
+     *
+     * @param path The record file
+     * @throws IOException If the file cannot be opened or is not a record file
+     */
+    public GameRecordWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(MAGIC).put(VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } else {
+            GameRecordReader.checkHeader(channel);
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Appends a finished game.
+     *
+     * @param initial The board the game started from, before any ply
+     * @param first   The color that played the first ply
+     * @param plies   The plies of the game, encoded by {@link Ply}
+     * @param count   The number of plies
+     * @param winner  The winning color, or {@code null} if the game ended without a winner
+     * @throws IOException If the game cannot be written
+     */
+    public synchronized void writeGame(Board initial, Piece.Color first, long[] plies, int count, Piece.Color winner) throws IOException {
+        buffer.clear();
+        this.ensure(64 + Position.SQUARES * 4 + count * 8);
+        buffer.putInt(0);
+        buffer.putShort((short) initial.getWinCon());
+        boolean custom = !initial.equals(new Board(initial.getWinCon()));
+        int result = winner == null ? 0 : winner == Piece.Color.BLACK ? 1 : 2;
+        buffer.put((byte) ((first == Piece.Color.WHITE ? WHITE_FIRST : 0) | result << RESULT_SHIFT | (custom ? CUSTOM_POSITION : 0)));
+        buffer.putInt(count);
+        if (custom) {
+            this.putPosition(initial);
+        }
+        for (int index = 0; index < count; index++) {
+            this.putPly(plies[index]);
+        }
+        buffer.putInt(0, buffer.position() - Integer.BYTES);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void putPosition(Board board) {
+        Position position = board.getPosition();
+        buffer.put((byte) board.getCaptures(Piece.Color.BLACK));
+        buffer.put((byte) board.getCaptures(Piece.Color.WHITE));
+        buffer.put((byte) (Long.bitCount(position.occupied(0)) + Long.bitCount(position.occupied(1))));
+        for (int square = 0; square < Position.SQUARES; square++) {
+            Piece piece = position.get(square);
+            if (piece == null) {
+                continue;
+            }
+            buffer.put((byte) square);
+            buffer.put((byte) (piece.getColor().ordinal() << 2 | piece.getShape().ordinal()));
+            if (piece.getShape() == Piece.Shape.PERFECTA) {
+                buffer.put((byte) ((Perfecta) piece).getComponentMask());
+            } else {
+                buffer.putShort((short) piece.getNumber());
+            }
+        }
+    }
+
+    private void putPly(long ply) {
+        int move = Ply.move(ply);
+        long capture = Ply.capture(ply);
+        int word = move == 0 ? 0 : Move.from(move) | Move.distance(move) << 7 | Move.direction(move).ordinal() << 9;
+        buffer.putShort((short) (word | (capture != 0 ? HAS_CAPTURE : 0)));
+        if (capture != 0) {
+            int capturers = Capture.capturerCount(capture);
+            buffer.put((byte) Capture.target(capture));
+            buffer.put((byte) (Capture.rule(capture).ordinal() | (Capture.component(capture) + 1) << 3 | (capturers - 1) << 6));
+            for (int index = 0; index < capturers; index++) {
+                buffer.put((byte) Capture.capturer(capture, index));
+            }
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(bytes) << 1).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Forces the written games to the storage device and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+}
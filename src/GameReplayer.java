@@ -0,0 +1,246 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Replays recorded games through the rules engine one ply at a time and hands the plies that pass a filter to a
+ * consumer, as they are played. Files are spread over a fixed pool of workers. Each worker keeps one board per
+ * win condition and takes every game back ply by ply when it ends, so memory stays bounded whatever the number and
+ * size of the files.
+ * <p>
+ * Usage: {@code java GameReplayer [--filter all|captures|perfecta-partial] [--threads N] FILE...} prints the positions
+ * after the matching plies in {@link BoardNotation}.
+ */
+public class GameReplayer {
+    /**
+     * Matches the plies that took a single component of a Perfecta.
+     */
+    public static final Predicate<ReplayEvent> PERFECTA_PARTIAL_CAPTURE = ReplayEvent::isPerfectaPartialCapture;
+
+    /**
+     * Matches the plies that made a capture.
+     */
+    public static final Predicate<ReplayEvent> CAPTURES = ReplayEvent::isCapture;
+
+    private final int threads;
+    private final LongAdder games = new LongAdder();
+    private final LongAdder plies = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder mismatchedResults = new LongAdder();
+
+    /**
+     * Creates a replayer.
+     *
+     * @param threads The number of files replayed at the same time
+     */
+    public GameReplayer(int threads) {
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Predicate<ReplayEvent> filter = event -> true;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> files = new ArrayList<>();
+        for (int arg = 0; arg < args.length; arg++) {
+            switch (args[arg]) {
+                case "--filter" -> filter = switch (args[++arg]) {
+                    case "all" -> event -> true;
+                    case "captures" -> CAPTURES;
+                    case "perfecta-partial" -> PERFECTA_PARTIAL_CAPTURE;
+                    default -> throw new IllegalArgumentException("Unknown filter: " + args[arg]);
+                };
+                case "--threads" -> threads = Integer.parseInt(args[++arg]);
+                default -> files.add(Path.of(args[arg]));
+            }
+        }
+        GameReplayer replayer = new GameReplayer(threads);
+        replayer.replay(files, filter, event -> {
+            String line = event.getFile() + " game " + event.getGame() + " ply " + event.getPlyIndex() + ": " + BoardNotation.format(event.getBoard(), event.getColor().opposite());
+            synchronized (System.out) {
+                System.out.println(line);
+            }
+        });
+        System.out.println(replayer.getGames() + " games, " + replayer.getPlies() + " plies, " + replayer.getMatches() + " matches, " + replayer.getMismatchedResults() + " results that did not replay");
+    }
+
+    /**
+     * Replays every game of the given files.
+     *
+     * @param files    The record files
+     * @param filter   Decides which plies are passed on; called on the worker threads
+     * @param consumer Receives the matching plies; called on the worker threads, so it must be thread safe
+     * @throws IOException If a file cannot be read
+     */
+    public void replay(List<Path> files, Predicate<ReplayEvent> filter, Consumer<ReplayEvent> consumer) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, files.size())));
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        workers.get().replay(file, filter, consumer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while replaying", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException cause) {
+                throw cause.getCause();
+            }
+            throw new IllegalStateException("A replay worker failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getPlies() {
+        return plies.sum();
+    }
+
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    /**
+     * Get the number of games whose recorded result differs from the result of replaying them, which points to a
+     * corrupt record or a change in the rules.
+     *
+     * @return The number of mismatched games
+     */
+    public long getMismatchedResults() {
+        return mismatchedResults.sum();
+    }
+
+    /**
+     * The state reused by one worker thread from game to game.
+     */
+    private final class Worker {
+        private final Map<Integer, Board> boards = new HashMap<>();
+        private final ReplayEvent event = new ReplayEvent();
+        private final int[] moves = new int[Move.MAX_MOVES];
+        private final long[] captures = new long[CaptureGenerator.MAX_CAPTURES];
+        private long[] played = new long[256];
+
+        private void replay(Path file, Predicate<ReplayEvent> filter, Consumer<ReplayEvent> consumer) throws IOException {
+            try (GameRecordReader reader = new GameRecordReader(file)) {
+                while (reader.nextGame()) {
+                    // Games from the default board state share one board, which is taken back to the start after each game
+                    Board board = reader.hasCustomPosition() ? reader.createBoard() : boards.computeIfAbsent(reader.getWinCon(), Board::new);
+                    event.startGame(file, reader.getGames() - 1, reader.getWinner(), board);
+                    Piece.Color color = reader.getFirstColor();
+                    int count = 0;
+                    long matched = 0;
+                    while (reader.hasNextPly()) {
+                        long ply = reader.nextPly();
+                        if (!this.isLegal(board, ply, color)) {
+                            if (!reader.hasCustomPosition()) {
+                                this.takeBack(board, count);
+                            }
+                            throw new IOException("Illegal ply " + count + " of game " + (reader.getGames() - 1) + " in " + file);
+                        }
+                        boolean partial = isPerfectaPartialCapture(board, ply);
+                        Ply.make(board, ply);
+                        if (count == played.length) {
+                            played = Arrays.copyOf(played, 2 * count);
+                        }
+                        played[count] = ply;
+                        event.setPly(count++, ply, color, partial);
+                        if (filter.test(event)) {
+                            matched++;
+                            consumer.accept(event);
+                        }
+                        color = color.opposite();
+                    }
+                    if (board.getWinner() != reader.getWinner()) {
+                        mismatchedResults.increment();
+                    }
+                    if (!reader.hasCustomPosition()) {
+                        this.takeBack(board, count);
+                    }
+                    games.increment();
+                    plies.add(reader.getPlyCount());
+                    matches.add(matched);
+                }
+            }
+        }
+
+        /**
+         * Checks a recorded ply against the rules before it is played, so that a corrupt record cannot corrupt a board
+         * shared with the next games: its move must be one of the legal moves, or 0 when there is none, and its capture
+         * one of the captures available after the move.
+         */
+        private boolean isLegal(Board board, long ply, Piece.Color color) {
+            int move = Ply.move(ply);
+            int moveCount = board.generateMoves(color, moves);
+            if (move == 0 ? moveCount != 0 : !contains(moves, moveCount, move)) {
+                return false;
+            }
+            long capture = Ply.capture(ply);
+            if (capture == 0) {
+                return true;
+            }
+            if (move != 0) {
+                board.makeMove(move);
+            }
+            int captureCount = board.enumerateCaptures(color, captures);
+            if (move != 0) {
+                board.unmakeMove();
+            }
+            for (int index = 0; index < captureCount; index++) {
+                if (captures[index] == capture) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void takeBack(Board board, int count) {
+            while (count > 0) {
+                Ply.unmake(board, played[--count]);
+            }
+        }
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int index = 0; index < count; index++) {
+            if (moves[index] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPerfectaPartialCapture(Board board, long ply) {
+        long capture = Ply.capture(ply);
+        if (capture == 0 || Capture.component(capture) < 0) {
+            return false;
+        }
+        // A move never changes the enemy pieces, so the target is already on the board before the ply
+        Piece target = board.getPosition().get(Capture.target(capture));
+        return target != null && target.getShape() == Piece.Shape.PERFECTA && ((Perfecta) target).getComponentCount() > 1;
+    }
+}
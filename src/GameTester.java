@@ -1,7 +1,10 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
 
 public class GameTester {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
         testEncounterCapture();
         testPerfectaEncounterCapture();
         testEruptionCapture();
@@ -12,23 +15,145 @@ public class GameTester {
         test3SidedSiegeCapture();
         test4SidedSiegeCapture();
         testFailedCapture();
+        testMoveGeneration();
+        testPerft();
+        testAttackMap();
+        testSiegeDetection();
+    }
+
+    public static void testMoveGeneration() {
+        System.out.println("Testing Move Generation");
+        Board board = new Board(1);
+        int[] moves = new int[Move.MAX_MOVES];
+        int count = board.generateMoves(Piece.Color.BLACK, moves);
+        System.out.println("Black has " + count + " legal moves from the starting position (expected 24)");
+        System.out.println(board);
+        int from = Move.from(moves[0]);
+        int to = Move.to(moves[0]);
+        Piece piece = board.getPosition().get(from);
+        System.out.println("Moving " + piece + " with " + Move.toString(moves[0]));
+        board.move(moves[0], Piece.Color.BLACK);
+        System.out.println(board);
+        boolean moved = board.getPosition().get(to) == piece && !board.getPosition().isOccupied(from);
+        System.out.println(count == 24 && moved ? "Move generation: PASS" : "Move generation: FAIL");
+    }
+
+    public static void testPerft() throws InterruptedException, ExecutionException {
+        System.out.println("Testing Perft to Depth 2");
+        PerftResult result = Perft.run(new Board(5), Piece.Color.BLACK, 2, 1);
+        System.out.println(result);
+        long[] expected = new long[Perft.COUNTERS];
+        expected[Perft.MOVE] = 20348;
+        expected[BoardGame.CaptureResult.ENCOUNTER.ordinal() + 1] = 442231;
+        expected[BoardGame.CaptureResult.ERUPTION.ordinal() + 1] = 161793;
+        expected[Perft.PERFECTA_PARTIAL] = 119514;
+        boolean passed = result.getNodes() == 624372;
+        System.out.println("Nodes: " + result.getNodes() + " (expected 624372)");
+        for (int counter = 0; counter < Perft.COUNTERS; counter++) {
+            // The deceit and siege counters are expected to stay at zero
+            passed &= result.getCount(counter) == expected[counter];
+        }
+        System.out.println(passed ? "Perft: PASS" : "Perft: FAIL");
+    }
+
+    public static void testAttackMap() {
+        System.out.println("Testing the Attack Map Against Capture Enumeration");
+        Board board = new Board(5);
+        AttackMap map = new AttackMap(board);
+        PlyGenerator generator = new PlyGenerator();
+        SplittableRandom random = new SplittableRandom(1);
+        long[] played = new long[64];
+        long[] expected = new long[CaptureGenerator.MAX_CAPTURES];
+        long[] actual = new long[CaptureGenerator.MAX_CAPTURES];
+        int depth = 0;
+        int mismatches = 0;
+        for (int step = 0; step < 2000; step++) {
+            Piece.Color color = depth % 2 == 0 ? Piece.Color.BLACK : Piece.Color.WHITE;
+            int count = board.getWinner() == null && depth < played.length ? generator.generate(board, color) : 0;
+            // Walk back now and then, so that unmaking is checked as well as making
+            if (count == 0 || (depth > 0 && random.nextInt(3) == 0)) {
+                if (depth == 0) {
+                    break;
+                }
+                Ply.unmake(board, played[--depth]);
+            } else {
+                played[depth] = generator.getPlies()[random.nextInt(count)];
+                Ply.make(board, played[depth++]);
+            }
+            for (Piece.Color side : Piece.Color.values()) {
+                int expectedCount = board.enumerateCaptures(side, expected);
+                int actualCount = map.generate(side, actual);
+                Arrays.sort(expected, 0, expectedCount);
+                Arrays.sort(actual, 0, actualCount);
+                if (map.getCaptureCount(side) != expectedCount || !Arrays.equals(expected, 0, expectedCount, actual, 0, actualCount)) {
+                    mismatches++;
+                }
+            }
+        }
+        map.detach();
+        System.out.println("Mismatched positions: " + mismatches);
+        System.out.println(mismatches == 0 ? "Attack map: PASS" : "Attack map: FAIL");
+    }
+
+    public static void testSiegeDetection() {
+        System.out.println("Testing Siege Detection Against a Neighbor Count");
+        // A corner, an edge, the middle, and an edge square that only has two diagonal neighbors
+        int[][] targets = {{0, 0}, {0, 3}, {5, 4}, {7, 0}};
+        boolean passed = true;
+        for (int[] target : targets) {
+            int square = Position.square(target[0], target[1]);
+            // Layout 0 fills the orthogonal neighbors, 1 the diagonal ones and 2 the orthogonal ones but the first
+            for (int layout = 0; layout < 3; layout++) {
+                Piece[][] pieces = new Piece[16][8];
+                pieces[target[0]][target[1]] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.WHITE);
+                boolean gap = layout == 2;
+                for (BoardGame.Direction direction : BoardGame.Direction.ALL) {
+                    int i = target[0] + direction.getRowStep();
+                    int j = target[1] + direction.getColumnStep();
+                    boolean orthogonal = direction.getRowStep() == 0 || direction.getColumnStep() == 0;
+                    if (Position.onBoard(i, j) && orthogonal == (layout != 1)) {
+                        if (gap) {
+                            gap = false;
+                        } else {
+                            pieces[i][j] = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.BLACK);
+                        }
+                    }
+                }
+                Position position = new Board(1, pieces).getPosition();
+                int expected = bruteForceEnclosures(pieces, target[0], target[1], Piece.Color.BLACK);
+                int actual = Siege.enclosures(position, Piece.Color.BLACK, square);
+                boolean matches = actual == expected;
+                for (int enclosure = Siege.ORTHOGONAL; enclosure <= Siege.DIAGONAL; enclosure <<= 1) {
+                    if ((expected & enclosure) != 0) {
+                        BoardGame.CaptureResult rule = bruteForceRule(target[0], target[1], enclosure);
+                        matches &= Siege.rule(square, enclosure) == rule
+                                && Siege.rule(square, Siege.capturers(square, enclosure, 0), Siege.capturers(square, enclosure, 1)) == rule;
+                    }
+                }
+                System.out.println("Target " + (target[1] + 1) + "," + (16 - target[0]) + " layout " + layout + ": enclosures " + actual + " (expected " + expected + ")");
+                passed &= matches;
+            }
+        }
+        // A diagonal siege is not allowed on the edge, where the target has only two diagonal neighbors
+        int edge = Position.square(7, 0);
+        passed &= Siege.rule(edge, Position.diagonalNeighbors(edge, 0), Position.diagonalNeighbors(edge, 1)) == null;
+        System.out.println(passed ? "Siege detection: PASS" : "Siege detection: FAIL");
     }
 
     public static void testEncounterCapture() {
         System.out.println("Testing Encounter Countering");
         Piece[][] pieces = new Piece[16][8];
         // Black Piece:
-        pieces[10][5] = new Piece(9, Piece.Shape.CIRCLE, Piece.Color.BLACK, 10, 5);
+        pieces[10][5] = Piece.of(9, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Piece:
-        pieces[11][5] = new Piece(9, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 11, 5);
+        pieces[11][5] = Piece.of(9, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(6, 6, true));
-        System.out.println("Capturing " + board.getBoardPiece(6, 5, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 6, 5, Piece.Color.BLACK);
+        long capturers = capturers(Position.square(10, 5));
+        System.out.println("Capturing " + board.getBoardPiece(6, 5, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(11, 5), Piece.Color.BLACK);
         System.out.println(board);
     }
 
@@ -36,17 +161,16 @@ public class GameTester {
         System.out.println("Testing Perfecta Capturing by Encounter");
         Piece[][] pieces = new Piece[16][8];
         // Black Piece:
-        pieces[10][5] = new Piece(25, Piece.Shape.CIRCLE, Piece.Color.BLACK, 10, 5);
+        pieces[10][5] = Piece.of(25, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Piece:
-        pieces[11][5] = new Perfecta(Piece.Color.WHITE, 11, 5);
+        pieces[11][5] = Perfecta.of(Piece.Color.WHITE);
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(6, 6, true));
-        System.out.println("Capturing " + board.getBoardPiece(6, 5, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 6, 5, Piece.Color.BLACK);
+        long capturers = capturers(Position.square(10, 5));
+        System.out.println("Capturing " + board.getBoardPiece(6, 5, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(11, 5), Piece.Color.BLACK);
         System.out.println(board);
     }
 
@@ -54,16 +178,15 @@ public class GameTester {
         System.out.println("Testing Eruption Capturing");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[11][3] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.BLACK, 11, 3);
+        pieces[11][3] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Piece:
-        pieces[12][3] = new Piece(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 12, 3);
+        pieces[12][3] = Piece.of(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(11, 3, false));
-        System.out.println("Capturing " + board.getBoardPiece(4, 4, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 4, 4, Piece.Color.BLACK);
+        long capturers = capturers(Position.square(11, 3));
+        System.out.println("Capturing " + board.getBoardPiece(4, 4, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(12, 3), Piece.Color.BLACK);
         System.out.println(board);
     }
 
@@ -71,17 +194,16 @@ public class GameTester {
         System.out.println("Testing Invalid Capture");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[10][3] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.BLACK, 11, 3);
+        pieces[10][3] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Piece:
-        pieces[11][3] = new Piece(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 12, 3);
-        pieces[12][3] = new Piece(9, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 12, 3);
+        pieces[11][3] = Piece.of(6, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        pieces[12][3] = Piece.of(9, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(10, 3, false));
-        System.out.println("Capturing " + board.getBoardPiece(4, 4, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 4, 4, Piece.Color.BLACK);
+        long capturers = capturers(Position.square(10, 3));
+        System.out.println("Capturing " + board.getBoardPiece(4, 4, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(12, 3), Piece.Color.BLACK);
         System.out.println(board);
     }
 
@@ -89,20 +211,18 @@ public class GameTester {
         System.out.println("Testing Deceit Capturing Horizontally");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[0][1] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.BLACK, 0, 1);
+        pieces[0][1] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Piece:
-        pieces[0][0] = new Piece(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 0, 0);
-        pieces[0][2] = new Piece(2, Piece.Shape.SQUARE, Piece.Color.WHITE, 0, 2);
+        pieces[0][0] = Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        pieces[0][2] = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.WHITE);
 
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(0, 0, false));
-        capturingPieces.add(board.getBoardPiece(0, 2, false));
-        System.out.println("Capturing " + board.getBoardPiece(2, 16, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 2, 16, Piece.Color.WHITE);
+        long capturers = capturers(Position.square(0, 0), Position.square(0, 2));
+        System.out.println("Capturing " + board.getBoardPiece(2, 16, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(0, 1), Piece.Color.WHITE);
         System.out.println(board);
     }
 
@@ -110,20 +230,18 @@ public class GameTester {
         System.out.println("Testing Deceit Capturing Vertically");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[1][0] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.BLACK, 1, 0);
+        pieces[1][0] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Piece:
-        pieces[0][0] = new Piece(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 0, 0);
-        pieces[2][0] = new Piece(2, Piece.Shape.SQUARE, Piece.Color.WHITE, 2, 0);
+        pieces[0][0] = Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        pieces[2][0] = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.WHITE);
 
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(0, 0, false));
-        capturingPieces.add(board.getBoardPiece(2, 0, false));
-        System.out.println("Capturing " + board.getBoardPiece(1, 15, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 1, 15, Piece.Color.WHITE);
+        long capturers = capturers(Position.square(0, 0), Position.square(2, 0));
+        System.out.println("Capturing " + board.getBoardPiece(1, 15, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(1, 0), Piece.Color.WHITE);
         System.out.println(board);
     }
 
@@ -131,20 +249,18 @@ public class GameTester {
         System.out.println("Testing Deceit Capturing Diagonally");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[1][1] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.BLACK, 1, 1);
+        pieces[1][1] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         // White Piece:
-        pieces[0][0] = new Piece(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE, 0, 0);
-        pieces[2][2] = new Piece(2, Piece.Shape.SQUARE, Piece.Color.WHITE, 2, 2);
+        pieces[0][0] = Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.WHITE);
+        pieces[2][2] = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.WHITE);
 
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(0, 0, false));
-        capturingPieces.add(board.getBoardPiece(2, 2, false));
-        System.out.println("Capturing " + board.getBoardPiece(2, 15, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 2, 15, Piece.Color.WHITE);
+        long capturers = capturers(Position.square(0, 0), Position.square(2, 2));
+        System.out.println("Capturing " + board.getBoardPiece(2, 15, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(1, 1), Piece.Color.WHITE);
         System.out.println(board);
     }
 
@@ -152,20 +268,18 @@ public class GameTester {
         System.out.println("Testing 2-Sided Siege Capturing");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[0][0] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.WHITE, 0, 0);
+        pieces[0][0] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.WHITE);
 
         // White Piece:
-        pieces[0][1] = new Piece(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 0, 1);
-        pieces[1][0] = new Piece(2, Piece.Shape.SQUARE, Piece.Color.BLACK, 1, 0);
+        pieces[0][1] = Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        pieces[1][0] = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.BLACK);
 
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(0, 1, false));
-        capturingPieces.add(board.getBoardPiece(1, 0, false));
-        System.out.println("Capturing " + board.getBoardPiece(1, 16, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 1, 16, Piece.Color.BLACK);
+        long capturers = capturers(Position.square(0, 1), Position.square(1, 0));
+        System.out.println("Capturing " + board.getBoardPiece(1, 16, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(0, 0), Piece.Color.BLACK);
         System.out.println(board);
     }
 
@@ -173,22 +287,19 @@ public class GameTester {
         System.out.println("Testing 3-Sided Siege Capturing");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[0][1] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.WHITE, 0, 1);
+        pieces[0][1] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.WHITE);
 
         // White Piece:
-        pieces[0][0] = new Piece(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 0, 0);
-        pieces[0][2] = new Piece(2, Piece.Shape.SQUARE, Piece.Color.BLACK, 0, 2);
-        pieces[1][1] = new Piece(2, Piece.Shape.CIRCLE, Piece.Color.BLACK, 1, 1);
+        pieces[0][0] = Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        pieces[0][2] = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        pieces[1][1] = Piece.of(2, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(0, 0, false));
-        capturingPieces.add(board.getBoardPiece(0, 2, false));
-        capturingPieces.add(board.getBoardPiece(1, 1, false));
-        System.out.println("Capturing " + board.getBoardPiece(2, 16, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 2, 16, Piece.Color.BLACK);
+        long capturers = capturers(Position.square(0, 0), Position.square(0, 2), Position.square(1, 1));
+        System.out.println("Capturing " + board.getBoardPiece(2, 16, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(0, 1), Piece.Color.BLACK);
         System.out.println(board);
     }
 
@@ -196,23 +307,81 @@ public class GameTester {
         System.out.println("Testing 4-Sided Siege Capturing");
         Piece[][] pieces = new Piece[16][8];
         // Black Pieces:
-        pieces[3][3] = new Piece(3, Piece.Shape.CIRCLE, Piece.Color.WHITE, 3, 3);
+        pieces[3][3] = Piece.of(3, Piece.Shape.CIRCLE, Piece.Color.WHITE);
 
         // White Piece:
-        pieces[3][2] = new Piece(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK, 3, 2);
-        pieces[3][4] = new Piece(2, Piece.Shape.SQUARE, Piece.Color.BLACK, 3, 4);
-        pieces[2][3] = new Piece(2, Piece.Shape.CIRCLE, Piece.Color.BLACK, 2, 3);
-        pieces[4][3] = new Piece(2, Piece.Shape.CIRCLE, Piece.Color.BLACK, 4, 3);
+        pieces[3][2] = Piece.of(1, Piece.Shape.TRIANGLE, Piece.Color.BLACK);
+        pieces[3][4] = Piece.of(2, Piece.Shape.SQUARE, Piece.Color.BLACK);
+        pieces[2][3] = Piece.of(2, Piece.Shape.CIRCLE, Piece.Color.BLACK);
+        pieces[4][3] = Piece.of(2, Piece.Shape.CIRCLE, Piece.Color.BLACK);
 
         Board board = new Board(1, pieces);
         System.out.println(board);
-        ArrayList<Piece> capturingPieces = new ArrayList<>();
-        capturingPieces.add(board.getBoardPiece(3, 2, false));
-        capturingPieces.add(board.getBoardPiece(3, 4, false));
-        capturingPieces.add(board.getBoardPiece(2, 3, false));
-        capturingPieces.add(board.getBoardPiece(4, 3, false));
-        System.out.println("Capturing " + board.getBoardPiece(4, 13, true) + " with " + capturingPieces);
-        board.capture(capturingPieces, 4, 13, Piece.Color.BLACK);
+        long capturers = capturers(Position.square(3, 2), Position.square(3, 4), Position.square(2, 3), Position.square(4, 3));
+        System.out.println("Capturing " + board.getBoardPiece(4, 13, true) + " with " + pieces(board, capturers));
+        board.capture(capturers, Position.square(3, 3), Piece.Color.BLACK);
         System.out.println(board);
     }
+
+    /**
+     * Finds the enclosures of a target by looking at each of its neighbors, without the tables of {@link Siege}.
+     */
+    private static int bruteForceEnclosures(Piece[][] pieces, int row, int column, Piece.Color color) {
+        int orthogonalSides = 0;
+        int orthogonalHeld = 0;
+        int diagonalSides = 0;
+        int diagonalHeld = 0;
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = column - 1; j <= column + 1; j++) {
+                if ((i != row || j != column) && i >= 0 && i < 16 && j >= 0 && j < 8) {
+                    boolean held = pieces[i][j] != null && pieces[i][j].getColor() == color;
+                    if (i == row || j == column) {
+                        orthogonalSides++;
+                        orthogonalHeld += held ? 1 : 0;
+                    } else {
+                        diagonalSides++;
+                        diagonalHeld += held ? 1 : 0;
+                    }
+                }
+            }
+        }
+        return (orthogonalHeld == orthogonalSides ? Siege.ORTHOGONAL : 0) | (diagonalSides == 4 && diagonalHeld == 4 ? Siege.DIAGONAL : 0);
+    }
+
+    /**
+     * Finds the rule of an enclosure from the number of orthogonal neighbors the target has on the board.
+     */
+    private static BoardGame.CaptureResult bruteForceRule(int row, int column, int enclosure) {
+        if (enclosure == Siege.DIAGONAL) {
+            return BoardGame.CaptureResult.FOUR_SIDED_SIEGE;
+        }
+        int sides = (row > 0 ? 1 : 0) + (row < 15 ? 1 : 0) + (column > 0 ? 1 : 0) + (column < 7 ? 1 : 0);
+        return switch (sides) {
+            case 2 -> BoardGame.CaptureResult.TWO_SIDED_SIEGE;
+            case 3 -> BoardGame.CaptureResult.THREE_SIDED_SIEGE;
+            default -> BoardGame.CaptureResult.FOUR_SIDED_SIEGE;
+        };
+    }
+
+    /**
+     * Packs the squares of capturing pieces the way {@link Board#capture(long, int, Piece.Color)} reads them.
+     */
+    private static long capturers(int... squares) {
+        long capturers = 0;
+        for (int square : squares) {
+            capturers = Capture.withCapturer(capturers, square);
+        }
+        return capturers;
+    }
+
+    /**
+     * Lists the pieces standing on packed capturing squares.
+     */
+    private static ArrayList<Piece> pieces(Board board, long capturers) {
+        ArrayList<Piece> pieces = new ArrayList<>();
+        for (int index = 0; index < Capture.capturerCount(capturers); index++) {
+            pieces.add(board.getPosition().get(Capture.capturer(capturers, index)));
+        }
+        return pieces;
+    }
 }
@@ -0,0 +1,27 @@
+import java.util.SplittableRandom;
+
+/**
+ * Plays the ply capturing the highest number, and a random move when no capture is available.
+ */
+public class GreedyCapturePolicy implements Policy {
+    private final PlyGenerator plyGenerator = new PlyGenerator();
+
+    public long choosePly(Board board, Piece.Color color, SplittableRandom random) {
+        int count = plyGenerator.generate(board, color);
+        if (count == 0) {
+            return 0;
+        }
+        long[] plies = plyGenerator.getPlies();
+        long best = 0;
+        int bestNumber = -1;
+        // Captures are listed first, so the scan stops at the first quiet ply
+        for (int index = 0; index < count && Ply.capture(plies[index]) != 0; index++) {
+            int number = board.getPosition().get(Capture.target(Ply.capture(plies[index]))).getNumber();
+            if (number > bestNumber) {
+                bestNumber = number;
+                best = plies[index];
+            }
+        }
+        return best != 0 ? best : plies[random.nextInt(count)];
+    }
+}
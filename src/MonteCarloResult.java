@@ -0,0 +1,80 @@
+/**
+ * The outcome of a {@link MonteCarloSearch}: the most visited root ply and the throughput and memory of the search.
+ */
+public class MonteCarloResult {
+    private final long bestPly;
+    private final double winRate;
+    private final long bestVisits;
+    private final long playouts;
+    private final long nodes;
+    private final long treeBytes;
+    private final int recycles;
+    private final long nanos;
+
+    /**
+     * Creates a search result.
+     *
+     * @param bestPly    The most visited root ply, encoded by {@link Ply}, or 0 if there was nothing to play
+     * @param winRate    The share of the playouts through the best ply won by the side to move
+     * @param bestVisits The number of playouts through the best ply
+     * @param playouts   The number of playouts of every thread together
+     * @param nodes      The number of nodes in use at the end, over every tree
+     * @param treeBytes  The memory reserved by the trees
+     * @param recycles   The number of times a full tree was recycled
+     * @param nanos      The time the search took in nanoseconds
+     */
+    public MonteCarloResult(long bestPly, double winRate, long bestVisits, long playouts, long nodes, long treeBytes, int recycles, long nanos) {
+        this.bestPly = bestPly;
+        this.winRate = winRate;
+        this.bestVisits = bestVisits;
+        this.playouts = playouts;
+        this.nodes = nodes;
+        this.treeBytes = treeBytes;
+        this.recycles = recycles;
+        this.nanos = nanos;
+    }
+
+    public long getBestPly() {
+        return bestPly;
+    }
+
+    public double getWinRate() {
+        return winRate;
+    }
+
+    public long getBestVisits() {
+        return bestVisits;
+    }
+
+    public long getPlayouts() {
+        return playouts;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTreeBytes() {
+        return treeBytes;
+    }
+
+    public int getRecycles() {
+        return recycles;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getPlayoutsPerSecond() {
+        return nanos == 0 ? 0 : playouts * 1_000_000_000L / nanos;
+    }
+
+    public int getBytesPerNode() {
+        return MonteCarloSearch.BYTES_PER_NODE;
+    }
+
+    public String toString() {
+        return "best " + Ply.toString(bestPly) + " win rate " + String.format("%.3f", winRate) + " visits " + bestVisits + " playouts " + playouts + " playouts/s " + this.getPlayoutsPerSecond() + " nodes " + nodes + " bytes/node " + this.getBytesPerNode() + " tree bytes " + treeBytes + " recycles " + recycles;
+    }
+}
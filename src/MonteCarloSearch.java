@@ -0,0 +1,325 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monte Carlo Tree Search with UCT selection and root parallelism: every thread grows its own tree on its own copy of
+ * the {@link Board}, and the visits of the root plies are added up at the end.
+ * Trees are stored in primitive arrays of a fixed number of nodes, so the memory of a search never grows. When a tree
+ * is full it is recycled: everything below the root plies is dropped and regrown, while the statistics of the root
+ * plies, which decide the result, are kept.
+ */
+public class MonteCarloSearch implements AutoCloseable {
+    /**
+     * The memory taken by one node: its ply, first child, child count, visits and wins.
+     */
+    public static final int BYTES_PER_NODE = Long.BYTES + 3 * Integer.BYTES + Double.BYTES;
+
+    private static final double EXPLORATION = Math.sqrt(2);
+    private static final int MAX_ROLLOUT_PLIES = 256;
+    private static final int LIMIT_CHECK_INTERVAL = 64;
+
+    private final Tree[] trees;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a search with its own pool of threads.
+     *
+     * @param threads      The number of threads, each growing its own tree
+     * @param nodesPerTree The number of nodes of each tree, which must exceed the number of root plies; a tree takes
+     *                     {@code nodesPerTree * BYTES_PER_NODE} bytes
+     * @param seed         The seed of the random rollouts
+     */
+    public MonteCarloSearch(int threads, int nodesPerTree, long seed) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread");
+        }
+        if (nodesPerTree < 2) {
+            throw new IllegalArgumentException("A tree needs room for its root and at least one ply");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        this.trees = new Tree[threads];
+        for (int thread = 0; thread < threads; thread++) {
+            trees[thread] = new Tree(nodesPerTree, random.split());
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches for the best ply of one color until the time or playout budget runs out.
+     * The board is only copied, never changed.
+     *
+     * @param board       The board to search
+     * @param color       The color to move
+     * @param timeMillis  The time budget in milliseconds, or {@link SearchEngine#NO_TIME_LIMIT}
+     * @param maxPlayouts The playout budget, shared between the threads
+     * @return The most visited ply along with the playout statistics
+     * @throws IllegalStateException If the root plies do not fit in a tree
+     */
+    public MonteCarloResult search(Board board, Piece.Color color, long timeMillis, long maxPlayouts) {
+        long start = System.nanoTime();
+        long deadline = SearchEngine.deadline(start, timeMillis);
+        long playoutsPerTree = Math.max(1, maxPlayouts / trees.length);
+        List<Future<?>> futures = new ArrayList<>(trees.length);
+        for (int thread = 0; thread < trees.length; thread++) {
+            Tree tree = trees[thread];
+            Board copy = new Board(board);
+            futures.add(executor.submit(() -> tree.search(copy, color, deadline, playoutsPerTree)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("A search thread failed", e.getCause());
+        }
+        return this.merge(System.nanoTime() - start);
+    }
+
+    /**
+     * Adds up the root statistics of every tree. The trees were expanded from equal boards by the same generator, so
+     * their root plies are listed in the same order.
+     */
+    private MonteCarloResult merge(long nanos) {
+        Tree first = trees[0];
+        int rootChildren = first.childCounts[0];
+        long[] visits = new long[rootChildren];
+        double[] wins = new double[rootChildren];
+        long playouts = 0;
+        long nodes = 0;
+        int recycles = 0;
+        for (Tree tree : trees) {
+            playouts += tree.playouts;
+            nodes += tree.size;
+            recycles += tree.recycles;
+            for (int child = 0; child < rootChildren; child++) {
+                visits[child] += tree.visits[1 + child];
+                wins[child] += tree.wins[1 + child];
+            }
+        }
+        int best = -1;
+        for (int child = 0; child < rootChildren; child++) {
+            if (best < 0 || visits[child] > visits[best]) {
+                best = child;
+            }
+        }
+        long bestPly = best < 0 ? 0 : first.plies[1 + best];
+        double winRate = best < 0 || visits[best] == 0 ? 0.5 : wins[best] / visits[best];
+        return new MonteCarloResult(bestPly, winRate, best < 0 ? 0 : visits[best], playouts, nodes, (long) trees.length * first.capacity() * BYTES_PER_NODE, recycles, nanos);
+    }
+
+    /**
+     * Stops the search threads.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * One search tree, in struct-of-arrays form. Node 0 is the root, and the children of a node take consecutive
+     * slots. A first child of 0 marks a node that has not been expanded, and -1 a node without plies.
+     */
+    private static final class Tree {
+        private final long[] plies;
+        private final int[] firstChildren;
+        private final int[] childCounts;
+        private final int[] visits;
+        private final double[] wins;
+        private final SplittableRandom random;
+        private final PlyGenerator plyGenerator = new PlyGenerator();
+        private final int[] moves = new int[Move.MAX_MOVES];
+        private final long[] captures = new long[CaptureGenerator.MAX_CAPTURES];
+        private final long[] rollout = new long[MAX_ROLLOUT_PLIES];
+        private int[] path = new int[64];
+        private int size;
+        private long playouts;
+        private int recycles;
+
+        private Tree(int capacity, SplittableRandom random) {
+            this.plies = new long[capacity];
+            this.firstChildren = new int[capacity];
+            this.childCounts = new int[capacity];
+            this.visits = new int[capacity];
+            this.wins = new double[capacity];
+            this.random = random;
+        }
+
+        private int capacity() {
+            return plies.length;
+        }
+
+        private void search(Board board, Piece.Color color, long deadline, long maxPlayouts) {
+            size = 1;
+            playouts = 0;
+            recycles = 0;
+            plies[0] = 0;
+            firstChildren[0] = 0;
+            childCounts[0] = 0;
+            visits[0] = 0;
+            wins[0] = 0;
+            if (!this.expand(0, board, color)) {
+                throw new IllegalStateException("The root plies do not fit in a tree of " + capacity() + " nodes");
+            }
+            if (childCounts[0] == 0) {
+                return;
+            }
+            while (playouts < maxPlayouts && ((playouts & (LIMIT_CHECK_INTERVAL - 1)) != 0 || System.nanoTime() - deadline < 0)) {
+                this.playout(board, color);
+                playouts++;
+            }
+        }
+
+        private void playout(Board board, Piece.Color rootColor) {
+            int node = 0;
+            int length = 0;
+            Piece.Color color = rootColor;
+            path[length++] = 0;
+            while (board.getWinner() == null) {
+                if (firstChildren[node] == 0) {
+                    if (visits[node] == 0 || !this.expand(node, board, color)) {
+                        break;
+                    }
+                }
+                if (firstChildren[node] < 0) {
+                    break;
+                }
+                node = this.select(node);
+                Ply.make(board, plies[node]);
+                color = color.opposite();
+                if (length == path.length) {
+                    path = Arrays.copyOf(path, 2 * length);
+                }
+                path[length++] = node;
+            }
+            double result = this.rollout(board, color, rootColor);
+            for (int step = length - 1; step > 0; step--) {
+                Ply.unmake(board, plies[path[step]]);
+            }
+            visits[0]++;
+            for (int step = 1; step < length; step++) {
+                visits[path[step]]++;
+                // A node holds the wins of the color that played its ply
+                wins[path[step]] += step % 2 == 1 ? result : 1 - result;
+            }
+        }
+
+        private int select(int node) {
+            int first = firstChildren[node];
+            double logVisits = Math.log(Math.max(1, visits[node]));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + childCounts[node]; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double value = wins[child] / visits[child] + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds the children of a leaf, recycling the tree first if they do not fit.
+         *
+         * @return {@code false} if the children do not fit even in a recycled tree
+         */
+        private boolean expand(int node, Board board, Piece.Color color) {
+            int count = plyGenerator.generate(board, color);
+            if (count == 0) {
+                firstChildren[node] = -1;
+                return true;
+            }
+            if (size + count > capacity()) {
+                if (node == 0) {
+                    return false;
+                }
+                this.recycle();
+                // Only the root plies survive, so a deeper leaf stays a leaf for the rest of this playout
+                if (node > childCounts[0] || size + count > capacity()) {
+                    return false;
+                }
+            }
+            long[] generated = plyGenerator.getPlies();
+            for (int index = 0; index < count; index++) {
+                int child = size + index;
+                plies[child] = generated[index];
+                firstChildren[child] = 0;
+                childCounts[child] = 0;
+                visits[child] = 0;
+                wins[child] = 0;
+            }
+            firstChildren[node] = size;
+            childCounts[node] = count;
+            size += count;
+            return true;
+        }
+
+        /**
+         * Frees every node below the root plies, which were allocated first and keep their statistics. Freed nodes
+         * still on the current selection path are only written to by the backup of this playout, and every node is
+         * cleared again when it is reused.
+         */
+        private void recycle() {
+            size = 1 + childCounts[0];
+            for (int child = 1; child < size; child++) {
+                if (firstChildren[child] > 0) {
+                    firstChildren[child] = 0;
+                    childCounts[child] = 0;
+                }
+            }
+            recycles++;
+        }
+
+        /**
+         * Plays random plies to the end of the game or to the rollout limit, always taking a capture when there is one.
+         *
+         * @return 1 if the root color won, 0 if it lost and 0.5 for a draw; an unfinished game goes to the color with
+         * more captures
+         */
+        private double rollout(Board board, Piece.Color color, Piece.Color rootColor) {
+            int length = 0;
+            while (length < MAX_ROLLOUT_PLIES && board.getWinner() == null) {
+                int moveCount = board.generateMoves(color, moves);
+                int move = moveCount == 0 ? 0 : moves[random.nextInt(moveCount)];
+                if (move != 0) {
+                    board.makeMove(move);
+                }
+                int captureCount = board.enumerateCaptures(color, captures);
+                long capture = captureCount == 0 ? 0 : captures[random.nextInt(captureCount)];
+                if (capture != 0) {
+                    board.makeCapture(capture);
+                }
+                rollout[length++] = Ply.encode(move, capture);
+                color = color.opposite();
+            }
+            Piece.Color winner = board.getWinner();
+            int balance = board.getCaptures(rootColor) - board.getCaptures(rootColor.opposite());
+            while (length > 0) {
+                Ply.unmake(board, rollout[--length]);
+            }
+            if (winner != null) {
+                return winner == rootColor ? 1 : 0;
+            }
+            return balance > 0 ? 1 : balance < 0 ? 0 : 0.5;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * Packs a move into a single {@code int} so that move lists can live in primitive buffers.
+ * Bits 0-6 hold the square the piece moves from ({@code i * 8 + j}), bits 7-9 the distance and bits 10-12 the
+ * ordinal of the {@link BoardGame.Direction}.
+ */
+public class Move {
+    /**
+     * Upper bound on the number of moves one color can have in any position.
+     */
+    public static final int MAX_MOVES = 1024;
+
+    private Move() {
+    }
+
+    public static int encode(int from, int distance, BoardGame.Direction direction) {
+        return from | distance << 7 | direction.ordinal() << 10;
+    }
+
+    public static int from(int move) {
+        return move & 0x7F;
+    }
+
+    public static int distance(int move) {
+        return move >>> 7 & 0x7;
+    }
+
+    public static BoardGame.Direction direction(int move) {
+        return BoardGame.Direction.ALL[move >>> 10 & 0x7];
+    }
+
+    /**
+     * Get the square the piece lands on.
+     *
+     * @param move The encoded move
+     * @return The destination square
+     */
+    public static int to(int move) {
+        BoardGame.Direction direction = direction(move);
+        return from(move) + distance(move) * (direction.getRowStep() * Position.COLUMNS + direction.getColumnStep());
+    }
+
+    /**
+     * Format a move the way {@link Game} reads it: {@code [x] [y] [number of spaces] [direction]}.
+     *
+     * @param move The encoded move
+     * @return The human readable move
+     */
+    public static String toString(int move) {
+        int from = from(move);
+        return (Position.column(from) + 1) + " " + (16 - Position.row(from)) + " " + distance(move) + " " + direction(move).name().toLowerCase();
+    }
+}
@@ -0,0 +1,169 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Opening book read straight from a memory-mapped file written by {@link OpeningBookBuilder}, so opening the book
+ * costs nothing and only the pages touched by lookups are loaded.
+ * <p>
+ * The file starts with the magic number {@code RBOK}, the format version (4 bytes) and the number of entries
+ * (8 bytes), followed by the entries sorted by position key, little endian: the key of the position from
+ * {@link Board#hash(Piece.Color)} (8 bytes), the ply played from it (8 bytes), the number of games the ply was played
+ * in, how many of them the color playing it won and how many had no winner (4 bytes each) and 4 bytes of padding.
+ * A lookup is a binary search over the entries.
+ */
+public class OpeningBook implements Closeable {
+    static final int MAGIC = 'R' | 'B' << 8 | 'O' << 16 | 'K' << 24;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 32;
+
+    private static final int SEGMENT_SHIFT = 25;
+    private static final long SEGMENT_ENTRIES = 1L << SEGMENT_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long entries;
+    private int minGames = 1;
+
+    /**
+     * Opens a book file.
+     *
+     * @param path The book file
+     * @throws IOException If the file cannot be mapped or is not a book
+     */
+    public OpeningBook(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) != HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not an opening book: " + path);
+        }
+        this.entries = header.getLong(8);
+        if (HEADER_BYTES + entries * ENTRY_BYTES != channel.size()) {
+            channel.close();
+            throw new IOException("Truncated opening book: " + path);
+        }
+        // Each segment maps a whole number of entries, so no entry is split between two segments
+        this.segments = new MappedByteBuffer[(int) ((entries + SEGMENT_ENTRIES - 1) >>> SEGMENT_SHIFT)];
+        for (int segment = 0; segment < segments.length; segment++) {
+            long first = (long) segment << SEGMENT_SHIFT;
+            long bytes = Math.min(SEGMENT_ENTRIES, entries - first) * ENTRY_BYTES;
+            segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * ENTRY_BYTES, bytes);
+            segments[segment].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Ignore plies played in fewer games than {@code minGames}.
+     *
+     * @param minGames The number of games a ply needs to be chosen
+     */
+    public void setMinGames(int minGames) {
+        this.minGames = minGames;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Choose the book ply of a position: the ply with the best score for the color playing it, a draw counting as
+     * half a win, among the plies played often enough.
+     *
+     * @param board      The board to look up
+     * @param sideToMove The color to move
+     * @return The book ply encoded by {@link Ply}, or 0 if the position is not in the book
+     */
+    public long probe(Board board, Piece.Color sideToMove) {
+        return this.probe(board.hash(sideToMove));
+    }
+
+    /**
+     * Choose the book ply of a position key.
+     *
+     * @param key The key of the position from {@link Board#hash(Piece.Color)}
+     * @return The book ply encoded by {@link Ply}, or 0 if the position is not in the book
+     */
+    public long probe(long key) {
+        long best = 0;
+        double bestScore = -1;
+        for (long entry = this.first(key); entry < entries && this.key(entry) == key; entry++) {
+            int games = this.plyGames(entry);
+            if (games < minGames) {
+                continue;
+            }
+            double score = (this.wins(entry) + 0.5 * this.draws(entry)) / games;
+            if (score > bestScore) {
+                bestScore = score;
+                best = this.ply(entry);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Get the number of games a position was reached in.
+     *
+     * @param key The key of the position from {@link Board#hash(Piece.Color)}
+     * @return The number of games over every book ply of the position
+     */
+    public long positionGames(long key) {
+        long games = 0;
+        for (long entry = this.first(key); entry < entries && this.key(entry) == key; entry++) {
+            games += this.plyGames(entry);
+        }
+        return games;
+    }
+
+    /**
+     * Find the first entry whose key is not below {@code key}.
+     */
+    private long first(long key) {
+        long low = 0;
+        long high = entries;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (this.key(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long key(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong(offset(entry));
+    }
+
+    private long ply(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getLong(offset(entry) + 8);
+    }
+
+    private int plyGames(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getInt(offset(entry) + 16);
+    }
+
+    private int wins(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getInt(offset(entry) + 20);
+    }
+
+    private int draws(long entry) {
+        return segments[(int) (entry >>> SEGMENT_SHIFT)].getInt(offset(entry) + 24);
+    }
+
+    private static int offset(long entry) {
+        return (int) (entry & (SEGMENT_ENTRIES - 1)) * ENTRY_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an {@link OpeningBook} from recorded games: the first plies of every game are added up by position and ply,
+ * together with how the game ended for the color that played them.
+ * <p>
+ * Usage: {@code java OpeningBookBuilder [--max-plies N] [--min-games N] --out BOOK FILE...}
+ */
+public class OpeningBookBuilder {
+    private final int maxPlies;
+    private final Map<BookMove, int[]> moves = new HashMap<>();
+    private final Map<Integer, Board> boards = new HashMap<>();
+    private long[] played = new long[64];
+
+    /**
+     * Creates a builder.
+     *
+     * @param maxPlies The number of plies of each game added to the book
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int maxPlies = 16;
+        int minGames = 2;
+        Path out = null;
+        List<Path> files = new ArrayList<>();
+        for (int arg = 0; arg < args.length; arg++) {
+            switch (args[arg]) {
+                case "--max-plies" -> maxPlies = Integer.parseInt(args[++arg]);
+                case "--min-games" -> minGames = Integer.parseInt(args[++arg]);
+                case "--out" -> out = Path.of(args[++arg]);
+                default -> files.add(Path.of(args[arg]));
+            }
+        }
+        if (out == null) {
+            System.out.println("Please give the book file with --out");
+            System.exit(1);
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPlies);
+        for (Path file : files) {
+            builder.add(file);
+        }
+        System.out.println("Wrote " + builder.write(out, minGames) + " book entries to " + out);
+    }
+
+    /**
+     * Adds the first plies of every game of a record file.
+     *
+     * @param file A file written by {@link GameRecordWriter}
+     * @throws IOException If the file cannot be read
+     */
+    public void add(Path file) throws IOException {
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            while (reader.nextGame()) {
+                Board board = reader.hasCustomPosition() ? reader.createBoard() : boards.computeIfAbsent(reader.getWinCon(), Board::new);
+                Piece.Color color = reader.getFirstColor();
+                Piece.Color winner = reader.getWinner();
+                int count = 0;
+                while (count < maxPlies && reader.hasNextPly()) {
+                    long ply = reader.nextPly();
+                    int[] stats = moves.computeIfAbsent(new BookMove(board.hash(color), ply), move -> new int[3]);
+                    stats[0]++;
+                    if (winner == color) {
+                        stats[1]++;
+                    } else if (winner == null) {
+                        stats[2]++;
+                    }
+                    Ply.make(board, ply);
+                    if (count == played.length) {
+                        played = Arrays.copyOf(played, 2 * count);
+                    }
+                    played[count++] = ply;
+                    color = color.opposite();
+                }
+                while (!reader.hasCustomPosition() && count > 0) {
+                    Ply.unmake(board, played[--count]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the book, sorted by position key.
+     *
+     * @param path     The book file to create or replace
+     * @param minGames The number of games a ply needs to be kept
+     * @return The number of entries written
+     * @throws IOException If the file cannot be written
+     */
+    public long write(Path path, int minGames) throws IOException {
+        List<Map.Entry<BookMove, int[]>> entries = new ArrayList<>();
+        for (Map.Entry<BookMove, int[]> entry : moves.entrySet()) {
+            if (entry.getValue()[0] >= minGames) {
+                entries.add(entry);
+            }
+        }
+        entries.sort((first, second) -> {
+            int byKey = Long.compare(first.getKey().key, second.getKey().key);
+            return byKey != 0 ? byKey : Long.compare(first.getKey().ply, second.getKey().ply);
+        });
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(entries.size());
+            for (Map.Entry<BookMove, int[]> entry : entries) {
+                if (buffer.remaining() < OpeningBook.ENTRY_BYTES) {
+                    drain(channel, buffer);
+                }
+                int[] stats = entry.getValue();
+                buffer.putLong(entry.getKey().key).putLong(entry.getKey().ply).putInt(stats[0]).putInt(stats[1]).putInt(stats[2]).putInt(0);
+            }
+            drain(channel, buffer);
+        }
+        return entries.size();
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * A ply played from a position.
+     */
+    private static final class BookMove {
+        private final long key;
+        private final long ply;
+
+        private BookMove(long key, long ply) {
+            this.key = key;
+            this.ply = ply;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof BookMove other && key == other.key && ply == other.ply;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(key * 31 + ply);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Lazy SMP search: every thread runs its own {@link SearchEngine} on its own copy of the {@link Board}, and the threads
+ * only share the lock-free {@link TranspositionTable}. Half of the helper threads start one ply deeper than the main
+ * thread, so the threads spread over different parts of the tree and fill the table for each other.
+ * The main thread alone decides the result and the budget; the helpers are stopped when it returns.
+ */
+public class ParallelSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final SearchEngine[] engines;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a parallel search with its own pool of threads.
+     *
+     * @param table   The transposition table shared by every thread
+     * @param threads The number of search threads, at least 1
+     */
+    public ParallelSearch(TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread");
+        }
+        this.table = table;
+        this.engines = new SearchEngine[threads];
+        for (int thread = 0; thread < threads; thread++) {
+            engines[thread] = new SearchEngine(table);
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return engines.length;
+    }
+
+    /**
+     * Searches for the best ply of one color on every thread.
+     * The board is only copied, never changed.
+     *
+     * @param board      The board to search
+     * @param color      The color to move
+     * @param maxDepth   The deepest iteration of the main thread, at most {@link SearchEngine#MAX_DEPTH}
+     * @param timeMillis The time budget of the main thread in milliseconds, or {@link SearchEngine#NO_TIME_LIMIT}
+     * @param maxNodes   The node budget of the main thread
+     * @return The result of the main thread along with the result of every thread
+     */
+    public ParallelSearchResult search(Board board, Piece.Color color, int maxDepth, long timeMillis, long maxNodes) {
+        long start = System.nanoTime();
+        table.newSearch();
+        List<Future<SearchResult>> futures = new ArrayList<>(engines.length);
+        for (int thread = 0; thread < engines.length; thread++) {
+            SearchEngine engine = engines[thread];
+            Board copy = new Board(board);
+            int firstDepth = 1 + thread % 2;
+            engine.clearStop();
+            if (thread == 0) {
+                futures.add(executor.submit(() -> engine.iterate(copy, color, firstDepth, maxDepth, timeMillis, maxNodes)));
+            } else {
+                futures.add(executor.submit(() -> engine.iterate(copy, color, firstDepth, SearchEngine.MAX_DEPTH, SearchEngine.NO_TIME_LIMIT, Long.MAX_VALUE)));
+            }
+        }
+        SearchResult[] results = new SearchResult[engines.length];
+        try {
+            results[0] = futures.get(0).get();
+            for (int thread = 1; thread < engines.length; thread++) {
+                engines[thread].stop();
+            }
+            for (int thread = 1; thread < engines.length; thread++) {
+                results[thread] = futures.get(thread).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (SearchEngine engine : engines) {
+                engine.stop();
+            }
+            throw new IllegalStateException("Interrupted while searching", e);
+        } catch (ExecutionException e) {
+            for (SearchEngine engine : engines) {
+                engine.stop();
+            }
+            throw new IllegalStateException("A search thread failed", e.getCause());
+        }
+        return new ParallelSearchResult(results, System.nanoTime() - start);
+    }
+
+    /**
+     * Stops the search threads.
+     */
+    @Override
+    public void close() {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+        executor.shutdownNow();
+    }
+}
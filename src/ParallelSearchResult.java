@@ -0,0 +1,75 @@
+/**
+ * The outcome of a {@link ParallelSearch}: the result of the main thread, which holds the chosen ply, and the
+ * statistics of every thread, to show how the search scales.
+ */
+public class ParallelSearchResult {
+    private final SearchResult[] threads;
+    private final long nanos;
+
+    /**
+     * Creates a parallel search result.
+     *
+     * @param threads The result of every thread, the main thread first
+     * @param nanos   The wall-clock time of the whole search in nanoseconds
+     */
+    public ParallelSearchResult(SearchResult[] threads, long nanos) {
+        this.threads = threads;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Get the result of the main thread, which holds the chosen ply.
+     *
+     * @return The main thread's result
+     */
+    public SearchResult getResult() {
+        return threads[0];
+    }
+
+    public SearchResult getThreadResult(int thread) {
+        return threads[thread];
+    }
+
+    public int getThreads() {
+        return threads.length;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Get the number of nodes visited by all the threads together.
+     *
+     * @return The total node count
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (SearchResult thread : threads) {
+            nodes += thread.getNodes();
+        }
+        return nodes;
+    }
+
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : this.getNodes() * 1_000_000_000L / nanos;
+    }
+
+    /**
+     * Get the scaling efficiency of the search. With no contention it stays close to the speed of a single thread;
+     * a drop as threads are added shows where they start to slow each other down.
+     *
+     * @return The total nodes per second divided by the number of threads
+     */
+    public long getNodesPerSecondPerThread() {
+        return this.getNodesPerSecond() / threads.length;
+    }
+
+    public String toString() {
+        StringBuilder result = new StringBuilder(threads[0].toString()).append("\nthreads ").append(threads.length).append(" total nodes ").append(this.getNodes()).append(" nps ").append(this.getNodesPerSecond()).append(" nps/thread ").append(this.getNodesPerSecondPerThread());
+        for (int thread = 0; thread < threads.length; thread++) {
+            result.append("\n  thread ").append(thread).append(" depth ").append(threads[thread].getDepth()).append(" nodes ").append(threads[thread].getNodes()).append(" nps ").append(threads[thread].getNodesPerSecond());
+        }
+        return result.toString();
+    }
+}
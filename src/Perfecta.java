@@ -1,37 +1,78 @@
 import java.util.ArrayList;
-import java.util.Arrays;
 
 /**
  * Represents a Perfecta Piece.
+ * The components of a Perfecta are fixed for each color, so the remaining ones are kept as a bitmask over them, and
+ * the value, the movement amounts and the {@link CaptureTable} numbers of every possible set of components are
+ * looked up from tables built once. Components are indexed in ascending order of their numbers among the remaining
+ * ones, as they always have been.
+ * <p>
+ * Like every {@link Piece}, a Perfecta never changes: there is one shared instance for each color and set of
+ * components, and capturing a component replaces the Perfecta on its square with the instance that lacks it.
  *
  * @author Yann Quinard
  */
 public class Perfecta extends Piece {
-    private ArrayList<Piece> pieces;
+    private static final Piece[][] COMPONENTS = new Piece[Color.values().length][];
+    private static final int[][] SUMS = new int[COMPONENTS.length][];
+    private static final int[][] MOVEMENTS = new int[COMPONENTS.length][];
+    private static final long[][] NUMBERS = new long[COMPONENTS.length][];
+    private static final Perfecta[][] VARIANTS = new Perfecta[COMPONENTS.length][];
 
-    public Perfecta(Color color, int i, int j) {
-        super(0, Shape.PERFECTA, color, i, j);
-        if (color == Color.BLACK) {
-            super.setNumber(190);
-        } else {
-            super.setNumber(91);
-        }
-        switch (color) {
-            case BLACK ->
-                    this.pieces = new ArrayList<>(Arrays.asList(new Piece(1, Shape.CIRCLE, Color.BLACK, i, j), new Piece(4, Shape.CIRCLE, Color.BLACK, i, j), new Piece(9, Shape.TRIANGLE, Color.BLACK, i, j), new Piece(16, Shape.TRIANGLE, Color.BLACK, i, j), new Piece(25, Shape.SQUARE, Color.BLACK, i, j), new Piece(36, Shape.SQUARE, Color.BLACK, i, j)));
-            case WHITE ->
-                    this.pieces = new ArrayList<>(Arrays.asList(new Piece(16, Shape.CIRCLE, Color.WHITE, i, j), new Piece(25, Shape.CIRCLE, Color.WHITE, i, j), new Piece(36, Shape.TRIANGLE, Color.WHITE, i, j), new Piece(49, Shape.TRIANGLE, Color.WHITE, i, j), new Piece(64, Shape.SQUARE, Color.WHITE, i, j)));
+    static {
+        COMPONENTS[Color.BLACK.ordinal()] = new Piece[]{Piece.of(1, Shape.CIRCLE, Color.BLACK), Piece.of(4, Shape.CIRCLE, Color.BLACK), Piece.of(9, Shape.TRIANGLE, Color.BLACK), Piece.of(16, Shape.TRIANGLE, Color.BLACK), Piece.of(25, Shape.SQUARE, Color.BLACK), Piece.of(36, Shape.SQUARE, Color.BLACK)};
+        COMPONENTS[Color.WHITE.ordinal()] = new Piece[]{Piece.of(16, Shape.CIRCLE, Color.WHITE), Piece.of(25, Shape.CIRCLE, Color.WHITE), Piece.of(36, Shape.TRIANGLE, Color.WHITE), Piece.of(49, Shape.TRIANGLE, Color.WHITE), Piece.of(64, Shape.SQUARE, Color.WHITE)};
+        for (int color = 0; color < COMPONENTS.length; color++) {
+            int sets = 1 << COMPONENTS[color].length;
+            SUMS[color] = new int[sets];
+            MOVEMENTS[color] = new int[sets];
+            NUMBERS[color] = new long[sets];
+            for (int set = 0; set < sets; set++) {
+                for (int component = 0; component < COMPONENTS[color].length; component++) {
+                    if ((set & 1 << component) != 0) {
+                        SUMS[color][set] += COMPONENTS[color][component].getNumber();
+                        MOVEMENTS[color][set] |= 1 << COMPONENTS[color][component].getMovement();
+                        NUMBERS[color][set] |= CaptureTable.bit(COMPONENTS[color][component].getNumber());
+                    }
+                }
+            }
+            VARIANTS[color] = new Perfecta[sets];
+            for (int set = 0; set < sets; set++) {
+                VARIANTS[color][set] = new Perfecta(Color.values()[color], set);
+            }
         }
     }
 
-    public void updateNumber() {
-        int sum = pieces.get(pieces.size() - 1).getNumber();
-        if (pieces.size() == 6 && super.getColor() == Color.WHITE || pieces.size() == 5 && super.getColor() == Color.BLACK) {
-            for (Piece piece : this.pieces) {
-                sum += piece.getNumber();
-            }
-        }
-        super.setNumber(sum);
+    private final int components;
+    private final int movements;
+    private final long numbers;
+
+    private Perfecta(Color color, int components) {
+        super(SUMS[color.ordinal()][components], Shape.PERFECTA, color);
+        this.components = components;
+        this.movements = MOVEMENTS[color.ordinal()][components];
+        this.numbers = NUMBERS[color.ordinal()][components];
+    }
+
+    /**
+     * Get the Perfecta of a color with all of its components.
+     *
+     * @param color The color of the Perfecta
+     * @return The shared instance
+     */
+    public static Perfecta of(Color color) {
+        return of(color, VARIANTS[color.ordinal()].length - 1);
+    }
+
+    /**
+     * Get the Perfecta of a color with some of its components.
+     *
+     * @param color      The color of the Perfecta
+     * @param components The mask of the remaining components, as returned by {@link #getComponentMask()}
+     * @return The shared instance
+     */
+    public static Perfecta of(Color color, int components) {
+        return VARIANTS[color.ordinal()][components];
     }
 
     /**
@@ -41,25 +82,90 @@ public class Perfecta extends Piece {
      * @return {@code true} if the piece can be moved by {@code amount} or false otherwise
      */
     public boolean validMovement(int amount) {
-        for (Piece piece : pieces) {
-            if (piece.getMovement() == amount) {
-                return true;
+        return amount >= 0 && amount < Integer.SIZE && (movements >>> amount & 1) != 0;
+    }
+
+    /**
+     * Get this Perfecta without one of its components.
+     *
+     * @param perfectaPieceNumber The index of the piece to be removed
+     * @return The shared instance with the remaining components
+     */
+    public Perfecta without(int perfectaPieceNumber) {
+        return of(this.getColor(), components & ~(1 << this.slot(perfectaPieceNumber)));
+    }
+
+    /**
+     * Get this Perfecta with a component removed by {@link #without(int)} put back.
+     * Components stay in ascending order, so the piece goes back to the index it had.
+     *
+     * @param piece The removed piece
+     * @return The shared instance with the component
+     */
+    public Perfecta with(Piece piece) {
+        Piece[] all = COMPONENTS[this.getColor().ordinal()];
+        int restored = components;
+        for (int slot = 0; slot < all.length; slot++) {
+            if (all[slot].getNumber() == piece.getNumber()) {
+                restored |= 1 << slot;
             }
         }
-        return false;
+        return of(this.getColor(), restored);
+    }
+
+    /**
+     * Get the slot among all the components of the color of the remaining component at {@code index}.
+     */
+    private int slot(int index) {
+        int remaining = components;
+        for (int skipped = 0; skipped < index; skipped++) {
+            remaining &= remaining - 1;
+        }
+        return Integer.numberOfTrailingZeros(remaining);
+    }
+
+    public int getComponentCount() {
+        return Integer.bitCount(components);
     }
 
     /**
-     * Remove a {@link Piece} from the Perfecta while updating the value of the perfecta
+     * Get one of the remaining components.
      *
-     * @param perfectaPieceNumber The index of the piece to be removed
+     * @param index The index of the component, below {@link #getComponentCount()}
+     * @return The component
+     */
+    public Piece getComponent(int index) {
+        return COMPONENTS[this.getColor().ordinal()][this.slot(index)];
+    }
+
+    /**
+     * Get the remaining components as a mask over all the components of the color, in ascending order.
+     *
+     * @return The mask of the remaining components
+     */
+    public int getComponentMask() {
+        return components;
+    }
+
+    /**
+     * Get the numbers of the remaining components as a {@link CaptureTable} mask.
+     *
+     * @return The mask of the component numbers
      */
-    public void capture(int perfectaPieceNumber) {
-        this.pieces.remove(perfectaPieceNumber);
-        this.updateNumber();
+    public long getNumbers() {
+        return numbers;
     }
 
+    /**
+     * Get the remaining components in a new list.
+     *
+     * @return The components, in ascending order
+     */
     public ArrayList<Piece> getPieces() {
+        ArrayList<Piece> pieces = new ArrayList<>(this.getComponentCount());
+        for (int index = 0; index < this.getComponentCount(); index++) {
+            pieces.add(this.getComponent(index));
+        }
         return pieces;
     }
 }
@@ -0,0 +1,177 @@
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the ply sequences of a given length from a position, split by the kind of the last ply. Comparing the counts
+ * with known values catches rules regressions, and the counting speed measures ply generation.
+ * A finished game has no plies, so sequences stop at the ply that wins.
+ * <p>
+ * Usage: {@code java Perft [--depth N] [--wincon N] [--position NOTATION] [--threads N] [--divide]}, where the position
+ * is written in {@link BoardNotation} and defaults to the default board state with black to move.
+ */
+public class Perft {
+    /**
+     * Index of the plies without a capture in the counts; the plies with a capture are counted at the ordinal of their
+     * {@link BoardGame.CaptureResult} plus one.
+     */
+    public static final int MOVE = 0;
+
+    /**
+     * Index of the captures that take a single component of a Perfecta. These plies are also counted under their rule.
+     */
+    public static final int PERFECTA_PARTIAL = BoardGame.CaptureResult.FOUR_SIDED_SIEGE.ordinal() + 2;
+
+    public static final int COUNTERS = PERFECTA_PARTIAL + 1;
+
+    private Perft() {
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int depth = 2;
+        int winCon = 5;
+        String notation = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean divide = false;
+        for (int arg = 0; arg < args.length; arg++) {
+            switch (args[arg]) {
+                case "--depth" -> depth = Integer.parseInt(args[++arg]);
+                case "--wincon" -> winCon = Integer.parseInt(args[++arg]);
+                case "--position" -> notation = args[++arg];
+                case "--threads" -> threads = Integer.parseInt(args[++arg]);
+                case "--divide" -> divide = true;
+                default -> {
+                    System.out.println("Unknown option: " + args[arg]);
+                    System.exit(1);
+                }
+            }
+        }
+        Board board = notation == null ? new Board(winCon) : BoardNotation.parseBoard(notation);
+        Piece.Color color = notation == null ? Piece.Color.BLACK : BoardNotation.parseSideToMove(notation);
+        System.out.println("Perft " + depth + " of " + BoardNotation.format(board, color) + " on " + threads + " threads");
+        PerftResult result = run(board, color, depth, threads);
+        if (divide) {
+            for (int ply = 0; ply < result.getRootPlies().length; ply++) {
+                System.out.println(Ply.toString(result.getRootPlies()[ply]) + ": " + result.getRootNodes()[ply]);
+            }
+        }
+        System.out.println(result);
+    }
+
+    /**
+     * Counts the ply sequences of a given length, splitting the work between the root plies.
+     * The board is only copied, never changed.
+     *
+     * @param board   The board to count from
+     * @param color   The color to move
+     * @param depth   The length of the sequences
+     * @param threads The number of worker threads
+     * @return The counts, in total and for each root ply
+     */
+    public static PerftResult run(Board board, Piece.Color color, int depth, int threads) throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        long[] counts = new long[COUNTERS];
+        if (depth == 0) {
+            counts[MOVE] = 1;
+            return new PerftResult(counts, new long[0], new long[0], System.nanoTime() - start);
+        }
+        PlyGenerator rootGenerator = new PlyGenerator();
+        int rootCount = board.getWinner() == null ? rootGenerator.generate(board, color) : 0;
+        long[] rootPlies = Arrays.copyOf(rootGenerator.getPlies(), rootCount);
+        long[][] rootCounts = new long[rootCount][COUNTERS];
+        ThreadLocal<PlyGenerator[]> generators = ThreadLocal.withInitial(() -> newGenerators(depth));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, rootCount).parallel().forEach(index -> {
+                Board copy = new Board(board);
+                if (depth == 1) {
+                    classify(copy, rootPlies[index], rootCounts[index]);
+                } else {
+                    Ply.make(copy, rootPlies[index]);
+                    count(copy, color.opposite(), depth - 1, generators.get(), rootCounts[index]);
+                }
+            })).get();
+        } finally {
+            pool.shutdown();
+        }
+        long[] rootNodes = new long[rootCount];
+        for (int index = 0; index < rootCount; index++) {
+            for (int counter = 0; counter < COUNTERS; counter++) {
+                counts[counter] += rootCounts[index][counter];
+            }
+            rootNodes[index] = nodes(rootCounts[index]);
+        }
+        return new PerftResult(counts, rootPlies, rootNodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Counts the ply sequences of a given length on one thread, making and taking back the plies on the board.
+     * The last ply of each sequence is only classified, never made.
+     *
+     * @param board      The board to count from
+     * @param color      The color to move
+     * @param depth      The length of the sequences, at least 1
+     * @param generators One generator for each remaining depth, indexed by depth
+     * @param counts     The counts to add to, indexed like {@link #COUNTERS}
+     */
+    public static void count(Board board, Piece.Color color, int depth, PlyGenerator[] generators, long[] counts) {
+        if (board.getWinner() != null) {
+            return;
+        }
+        PlyGenerator generator = generators[depth];
+        int count = generator.generate(board, color);
+        long[] plies = generator.getPlies();
+        for (int index = 0; index < count; index++) {
+            if (depth == 1) {
+                classify(board, plies[index], counts);
+            } else {
+                Ply.make(board, plies[index]);
+                count(board, color.opposite(), depth - 1, generators, counts);
+                Ply.unmake(board, plies[index]);
+            }
+        }
+    }
+
+    /**
+     * Creates the generators needed by {@link #count(Board, Piece.Color, int, PlyGenerator[], long[])}.
+     *
+     * @param depth The deepest count to run
+     * @return One generator for each depth from 1 to {@code depth}
+     */
+    public static PlyGenerator[] newGenerators(int depth) {
+        PlyGenerator[] generators = new PlyGenerator[depth + 1];
+        for (int level = 1; level <= depth; level++) {
+            generators[level] = new PlyGenerator();
+        }
+        return generators;
+    }
+
+    private static void classify(Board board, long ply, long[] counts) {
+        long capture = Ply.capture(ply);
+        if (capture == 0) {
+            counts[MOVE]++;
+            return;
+        }
+        counts[Capture.rule(capture).ordinal() + 1]++;
+        // A move never changes the enemy pieces, so the target is already on the board before the ply
+        Piece target = board.getPosition().get(Capture.target(capture));
+        if (Capture.component(capture) >= 0 && target.getShape() == Piece.Shape.PERFECTA && ((Perfecta) target).getComponentCount() > 1) {
+            counts[PERFECTA_PARTIAL]++;
+        }
+    }
+
+    /**
+     * Get the number of sequences in a set of counts.
+     *
+     * @param counts The counts, indexed like {@link #COUNTERS}
+     * @return The number of sequences, counting each once
+     */
+    static long nodes(long[] counts) {
+        long nodes = 0;
+        for (int counter = MOVE; counter < PERFECTA_PARTIAL; counter++) {
+            nodes += counts[counter];
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * The counts of a {@link Perft} run.
+ */
+public class PerftResult {
+    private final long[] counts;
+    private final long[] rootPlies;
+    private final long[] rootNodes;
+    private final long nanos;
+
+    /**
+     * Creates a perft result.
+     *
+     * @param counts    The counts of every kind of ply, indexed like {@link Perft#COUNTERS}
+     * @param rootPlies The plies of the position, encoded by {@link Ply}
+     * @param rootNodes The number of sequences starting with each root ply
+     * @param nanos     The time the count took in nanoseconds
+     */
+    public PerftResult(long[] counts, long[] rootPlies, long[] rootNodes, long nanos) {
+        this.counts = counts;
+        this.rootPlies = rootPlies;
+        this.rootNodes = rootNodes;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Get the number of ply sequences.
+     *
+     * @return The number of leaves of the tree
+     */
+    public long getNodes() {
+        return Perft.nodes(counts);
+    }
+
+    /**
+     * Get the number of sequences ending in one kind of ply.
+     *
+     * @param counter {@link Perft#MOVE}, a capture rule ordinal plus one or {@link Perft#PERFECTA_PARTIAL}
+     * @return The count of that kind of ply
+     */
+    public long getCount(int counter) {
+        return counts[counter];
+    }
+
+    public long[] getRootPlies() {
+        return rootPlies;
+    }
+
+    public long[] getRootNodes() {
+        return rootNodes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : this.getNodes() * 1_000_000_000L / nanos;
+    }
+
+    public String toString() {
+        StringBuilder result = new StringBuilder("nodes ").append(this.getNodes()).append("\n  MOVE               ").append(counts[Perft.MOVE]);
+        for (BoardGame.CaptureResult rule : BoardGame.CaptureResult.values()) {
+            if (rule.isSuccess()) {
+                result.append(String.format("%n  %-18s %d", rule, counts[rule.ordinal() + 1]));
+            }
+        }
+        result.append(String.format("%n  %-18s %d", "PERFECTA_PARTIAL", counts[Perft.PERFECTA_PARTIAL]));
+        return result.append(String.format("%n%.3f s, %d nodes/s", nanos / 1e9, this.getNodesPerSecond())).toString();
+    }
+}
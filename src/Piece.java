@@ -1,19 +1,24 @@
-import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a {@code Board} piece.
  * Holds a number, a {@code Shape}, and a {@code Color}
+ * <p>
+ * Pieces are immutable and do not know where they stand: the {@link Position} they are in is the only record of their
+ * squares. There is one shared instance for each number, shape and color, obtained with {@link #of(int, Shape, Color)},
+ * so copying a board copies references only.
  *
  * @author Yann Quinard
  */
 public class Piece {
+    private static final Map<Integer, Piece> PIECES = new ConcurrentHashMap<>();
+
+    private final int number;
     private final Shape shape;
     private final Color color;
     private final String symbol;
-    private int number;
-    private int i;
-    private int j;
-    private int movement;
+    private final int movement;
 
     /**
      * Creates a new piece.
@@ -21,15 +26,11 @@ public class Piece {
      * @param number The value of the piece
      * @param shape  The {@code Shape} of the piece
      * @param color  The color of the piece
-     * @param i      The i index of the piece
-     * @param j      The j index of the piece
      */
-    public Piece(int number, Shape shape, Color color, int i, int j) {
+    protected Piece(int number, Shape shape, Color color) {
         this.number = number;
         this.shape = shape;
         this.color = color;
-        this.i = i;
-        this.j = j;
         switch (shape) {
             case CIRCLE -> {
                 this.movement = 1;
@@ -50,8 +51,24 @@ public class Piece {
                     case WHITE -> "WP";
                 };
             }
-            default -> this.symbol = "";
+            default -> throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    /**
+     * Get the piece with a number, a shape and a color.
+     *
+     * @param number The value of the piece
+     * @param shape  The {@code Shape} of the piece, other than {@link Shape#PERFECTA}
+     * @param color  The color of the piece
+     * @return The shared instance
+     * @throws IllegalArgumentException If the shape is {@link Shape#PERFECTA}; use {@link Perfecta#of(Color)} instead
+     */
+    public static Piece of(int number, Shape shape, Color color) {
+        if (shape == Shape.PERFECTA) {
+            throw new IllegalArgumentException("Perfectas are obtained with Perfecta.of");
         }
+        return PIECES.computeIfAbsent(number << 3 | shape.ordinal() << 1 | color.ordinal(), key -> new Piece(number, shape, color));
     }
 
     /**
@@ -61,218 +78,78 @@ public class Piece {
      * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
      */
     public int checkEncounterCapture(Piece capturingPiece) {
-        if (capturingPiece.getShape() == Shape.PERFECTA && this.getShape() == Shape.PERFECTA) {
-            ArrayList<Piece> capturingPiecePerfectaPieces = ((Perfecta) capturingPiece).getPieces();
-            ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-            for (Piece capturingPiecePerfectaPiece : capturingPiecePerfectaPieces) {
-                for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                    if (capturingPiecePerfectaPiece.getNumber() == thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber()) {
-                        return thisPerfectaPieceIndex;
-                    }
-                }
-            }
-        } else if (capturingPiece.getShape() == Shape.PERFECTA) {
-            ArrayList<Piece> capturingPiecePerfectaPieces = ((Perfecta) capturingPiece).getPieces();
-            for (Piece capturingPiecePerfectaPiece : capturingPiecePerfectaPieces) {
-                if (capturingPiecePerfectaPiece.getNumber() == this.getNumber()) {
-                    return -1;
-                }
-            }
-        } else if (this.getShape() == Shape.PERFECTA) {
-            ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-            for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                if (thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber() == capturingPiece.getNumber()) {
-                    return thisPerfectaPieceIndex;
-                }
-            }
-        } else {
-            if (this.getNumber() == capturingPiece.getNumber()) {
-                return -1;
-            }
-        }
-        return -2;
+        return CaptureTable.encounter(this, capturingPiece);
     }
 
     /**
      * Check whether {@code this} piece can be captured by Eruption.
      *
-     * @param capturingPiece The piece to capture {@code this} piece with
+     * @param square          The square of {@code this} piece
+     * @param capturingPiece  The piece to capture {@code this} piece with
+     * @param capturingSquare The square of the capturing piece
      * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
      */
-    public int checkEruptionCapture(Piece capturingPiece) {
-        int spacesI = Math.abs(capturingPiece.getI() - this.getI()) + 1;
-        int spacesJ = Math.abs(capturingPiece.getJ() - this.getJ()) + 1;
-        if (capturingPiece.getShape() == Shape.PERFECTA && this.getShape() == Shape.PERFECTA) {
-            ArrayList<Piece> capturingPiecePerfectaPieces = ((Perfecta) capturingPiece).getPieces();
-            ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-            for (Piece capturingPiecePerfectaPiece : capturingPiecePerfectaPieces) {
-                for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                    int capPiece = capturingPiecePerfectaPiece.getNumber();
-                    int thisPiece = thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber();
-                    if (capPiece * spacesI == thisPiece || capPiece * spacesJ == thisPiece || (double) capPiece / spacesI == thisPiece || (double) spacesI / capPiece == thisPiece || (double) capPiece / spacesJ == thisPiece || (double) spacesJ / capPiece == thisPiece) {
-                        return thisPerfectaPieceIndex;
-                    }
-                }
-            }
-        } else if (capturingPiece.getShape() == Shape.PERFECTA) {
-            ArrayList<Piece> capturingPiecePerfectaPieces = ((Perfecta) capturingPiece).getPieces();
-            for (Piece capturingPiecePerfectaPiece : capturingPiecePerfectaPieces) {
-                int capPiece = capturingPiecePerfectaPiece.getNumber();
-                int thisPiece = this.getNumber();
-                if (capPiece * spacesI == thisPiece || capPiece * spacesJ == thisPiece || (double) capPiece / spacesI == thisPiece || (double) spacesI / capPiece == thisPiece || (double) capPiece / spacesJ == thisPiece || (double) spacesJ / capPiece == thisPiece) {
-                    return -1;
-                }
-            }
-        } else if (this.getShape() == Shape.PERFECTA) {
-            ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-            for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                int capPiece = capturingPiece.getNumber();
-                int thisPiece = thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber();
-                if (capPiece * spacesI == thisPiece || capPiece * spacesJ == thisPiece || (double) capPiece / spacesI == thisPiece || (double) spacesI / capPiece == thisPiece || (double) capPiece / spacesJ == thisPiece || (double) spacesJ / capPiece == thisPiece) {
-                    return thisPerfectaPieceIndex;
-                }
-            }
-        } else {
-            int capPiece = capturingPiece.getNumber();
-            int thisPiece = this.getNumber();
-            if (capPiece * spacesI == thisPiece || capPiece * spacesJ == thisPiece || (double) capPiece / spacesI == thisPiece || (double) spacesI / capPiece == thisPiece || (double) capPiece / spacesJ == thisPiece || (double) spacesJ / capPiece == thisPiece) {
-                return -1;
-            }
-        }
-        return -2;
+    public int checkEruptionCapture(int square, Piece capturingPiece, int capturingSquare) {
+        int spacesI = Math.abs(Position.row(capturingSquare) - Position.row(square)) + 1;
+        int spacesJ = Math.abs(Position.column(capturingSquare) - Position.column(square)) + 1;
+        return CaptureTable.eruption(this, capturingPiece, spacesI, spacesJ);
     }
 
     /**
      * Checks whether {@code this} piece can be captured by Deceit.
      *
-     * @param capturingPieces The pieces to capture {@code this} piece with
+     * @param square    The square of {@code this} piece
+     * @param capPiece1 The first piece to capture {@code this} piece with
+     * @param square1   The square of the first piece
+     * @param capPiece2 The second piece to capture {@code this} piece with
+     * @param square2   The square of the second piece
      * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
      */
-    public int checkDeceitCapture(ArrayList<Piece> capturingPieces) {
-        Piece capPiece1 = capturingPieces.get(0);
-        Piece capPiece2 = capturingPieces.get(1);
-        int distanceI1 = Math.abs(capPiece1.getI() - this.getI());
-        int distanceJ1 = Math.abs(capPiece1.getJ() - this.getJ());
-        int distanceI2 = Math.abs(capPiece2.getI() - this.getI());
-        int distanceJ2 = Math.abs(capPiece2.getJ() - this.getJ());
+    public int checkDeceitCapture(int square, Piece capPiece1, int square1, Piece capPiece2, int square2) {
+        int distanceI1 = Math.abs(Position.row(square1) - Position.row(square));
+        int distanceJ1 = Math.abs(Position.column(square1) - Position.column(square));
+        int distanceI2 = Math.abs(Position.row(square2) - Position.row(square));
+        int distanceJ2 = Math.abs(Position.column(square2) - Position.column(square));
         boolean adjacentCheck = (distanceI1 == 1 && distanceI2 == 1 && distanceJ1 == 0 && distanceJ2 == 0) || (distanceI1 == 1 && distanceI2 == 1 && distanceJ1 == 1 && distanceJ2 == 1) || (distanceI1 == 0 && distanceI2 == 0 && distanceJ1 == 1 && distanceJ2 == 1);
-        if (capPiece1.getShape() == Shape.PERFECTA && capPiece2.getShape() == Shape.PERFECTA && this.getShape() == Shape.PERFECTA) {
-            for (Piece capPiece1PerfectaPiece : ((Perfecta) capPiece1).getPieces()) {
-                for (Piece capPiece2PerfectaPiece : ((Perfecta) capPiece2).getPieces()) {
-                    ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-                    for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                        if (capPiece1PerfectaPiece.getNumber() + capPiece2PerfectaPiece.getNumber() == thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber() && adjacentCheck) {
-                            return thisPerfectaPieceIndex;
-                        }
-                    }
-                }
-            }
-        } else if (capPiece1.getShape() == Shape.PERFECTA && capPiece2.getShape() == Shape.PERFECTA) {
-            for (Piece capPiece1PerfectaPiece : ((Perfecta) capPiece1).getPieces()) {
-                for (Piece capPiece2PerfectaPiece : ((Perfecta) capPiece2).getPieces()) {
-                    if (capPiece1PerfectaPiece.getNumber() + capPiece2PerfectaPiece.getNumber() == this.getNumber() && adjacentCheck) {
-                        return -1;
-                    }
-                }
-            }
-        } else if (capPiece1.getShape() == Shape.PERFECTA && this.getShape() == Shape.PERFECTA) {
-            for (Piece capPiece1PerfectaPiece : ((Perfecta) capPiece1).getPieces()) {
-                ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-                for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                    if (capPiece1PerfectaPiece.getNumber() + capPiece2.getNumber() == thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber() && adjacentCheck) {
-                        return thisPerfectaPieceIndex;
-                    }
-                }
-            }
-        } else if (capPiece2.getShape() == Shape.PERFECTA && this.getShape() == Shape.PERFECTA) {
-            for (Piece capPiece2PerfectaPiece : ((Perfecta) capPiece2).getPieces()) {
-                ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-                for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                    if (capPiece1.getNumber() + capPiece2PerfectaPiece.getNumber() == thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber() && adjacentCheck) {
-                        return thisPerfectaPieceIndex;
-                    }
-                }
-            }
-        } else if (capPiece1.getShape() == Shape.PERFECTA) {
-            for (Piece capPiece1PerfectaPiece : ((Perfecta) capPiece1).getPieces()) {
-                if (capPiece1PerfectaPiece.getNumber() + capPiece2.getNumber() == this.getNumber() && adjacentCheck) {
-                    return -1;
-                }
-            }
-        } else if (capPiece2.getShape() == Shape.PERFECTA) {
-            for (Piece capPiece2PerfectaPiece : ((Perfecta) capPiece2).getPieces()) {
-                if (capPiece1.getNumber() + capPiece2PerfectaPiece.getNumber() == this.getNumber() && adjacentCheck) {
-                    return -1;
-                }
-            }
-        } else if (this.getShape() == Shape.PERFECTA) {
-            ArrayList<Piece> thisPerfectaPieces = ((Perfecta) this).getPieces();
-            for (int thisPerfectaPieceIndex = 0; thisPerfectaPieceIndex < thisPerfectaPieces.size(); thisPerfectaPieceIndex++) {
-                if (capPiece1.getNumber() + capPiece1.getNumber() == thisPerfectaPieces.get(thisPerfectaPieceIndex).getNumber() && (distanceI1 == 1 && distanceI2 == 1 && distanceJ1 == 0 && distanceJ2 == 0) || (distanceI1 == 1 && distanceI2 == 1 && distanceJ1 == 1 && distanceJ2 == 1) || (distanceI1 == 0 && distanceI2 == 0 && distanceJ1 == 1 && distanceJ2 == 1)) {
-                    return thisPerfectaPieceIndex;
-                }
-            }
-        } else {
-            if (((capPiece1.getNumber() + capPiece2.getNumber()) == this.getNumber()) && adjacentCheck) {
-                return -1;
-            }
+        if (!adjacentCheck) {
+            return -2;
         }
-        return -2;
+        return CaptureTable.deceit(this, capPiece1, capPiece2);
     }
 
     /**
      * Check whether {@code this} piece can be captured by 2-Sided Siege.
      *
-     * @param capturingPieces The pieces to capture {@code this} piece with
+     * @param square  The square of {@code this} piece
+     * @param square1 The square of the first piece to capture {@code this} piece with
+     * @param square2 The square of the second piece
      * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
      */
-    public int check2SidedSiegeCapture(ArrayList<Piece> capturingPieces) {
-        Piece capPiece1 = capturingPieces.get(0);
-        Piece capPiece2 = capturingPieces.get(1);
-        int distanceI1 = Math.abs(capPiece1.getI() - this.getI());
-        int distanceJ1 = Math.abs(capPiece1.getJ() - this.getJ());
-        int distanceI2 = Math.abs(capPiece2.getI() - this.getI());
-        int distanceJ2 = Math.abs(capPiece2.getJ() - this.getJ());
-        if (this.getI() == 0 && this.getJ() == 0 || this.getI() == 0 && this.getJ() == 7 || this.getI() == 15 && this.getJ() == 0 || this.getI() == 15 && this.getJ() == 7) {
-            if (distanceI1 == 0 && distanceJ1 == 1 && distanceJ2 == 0 && distanceI2 == 1 || distanceJ1 == 0 && distanceI1 == 1 && distanceI2 == 0 && distanceJ2 == 1) {
-                return -1;
-            }
-        }
-        return -2;
+    public int check2SidedSiegeCapture(int square, int square1, int square2) {
+        long lo = Position.bit(square1, 0) | Position.bit(square2, 0);
+        long hi = Position.bit(square1, 1) | Position.bit(square2, 1);
+        return Siege.rule(square, lo, hi) == BoardGame.CaptureResult.TWO_SIDED_SIEGE ? -1 : -2;
     }
 
     /**
      * Check whether {@code this} piece can be captured by 3-Sided Siege.
      *
-     * @param capturingPieces The pieces to capture {@code this} piece with
+     * @param square  The square of {@code this} piece
+     * @param square1 The square of the first piece to capture {@code this} piece with
+     * @param square2 The square of the second piece
+     * @param square3 The square of the third piece
      * @return -2 if the capture is invalid, -1 or the index of the perfecta piece to be captured if the capture was successful
      */
-    public int check3SidedSiegeCapture(ArrayList<Piece> capturingPieces) {
-        Piece capPiece1 = capturingPieces.get(0);
-        Piece capPiece2 = capturingPieces.get(1);
-        Piece capPiece3 = capturingPieces.get(2);
-        int distanceI1 = Math.abs(capPiece1.getI() - this.getI());
-        int distanceJ1 = Math.abs(capPiece1.getJ() - this.getJ());
-        int distanceJ2 = Math.abs(capPiece2.getJ() - this.getJ());
-        int distanceI2 = Math.abs(capPiece2.getI() - this.getI());
-        int distanceJ3 = Math.abs(capPiece3.getJ() - this.getJ());
-        int distanceI3 = Math.abs(capPiece3.getI() - this.getI());
-        if ((this.getI() == 0 || this.getI() == 15) && this.getJ() != 0 && this.getJ() != 7 || (this.getJ() == 0 || this.getJ() == 7) && this.getI() != 0 && this.getI() != 15) {
-            if (distanceI1 + distanceJ1 + distanceI2 + distanceJ2 + distanceI3 + distanceJ3 <= 6 && distanceI1 == 1 ^ distanceJ1 == 1 && distanceI2 == 1 ^ distanceJ2 == 1 && distanceI3 == 1 ^ distanceJ3 == 1) {
-                return -1;
-            }
-        }
-        return -2;
+    public int check3SidedSiegeCapture(int square, int square1, int square2, int square3) {
+        long lo = Position.bit(square1, 0) | Position.bit(square2, 0) | Position.bit(square3, 0);
+        long hi = Position.bit(square1, 1) | Position.bit(square2, 1) | Position.bit(square3, 1);
+        return Siege.rule(square, lo, hi) == BoardGame.CaptureResult.THREE_SIDED_SIEGE ? -1 : -2;
     }
 
     public int getNumber() {
         return number;
     }
 
-    protected void setNumber(int number) {
-        this.number = number;
-    }
-
     public Shape getShape() {
         return shape;
     }
@@ -289,22 +166,6 @@ public class Piece {
         return symbol;
     }
 
-    public int getI() {
-        return i;
-    }
-
-    public void setI(int i) {
-        this.i = i;
-    }
-
-    public int getJ() {
-        return j;
-    }
-
-    public void setJ(int j) {
-        this.j = j;
-    }
-
     /**
      * Check whether {@code this} piece can move by {@code amount}.
      *
@@ -326,7 +187,11 @@ public class Piece {
      * Represents the Color that a piece is.
      */
     enum Color {
-        WHITE, BLACK,
+        WHITE, BLACK;
+
+        public Color opposite() {
+            return this == WHITE ? BLACK : WHITE;
+        }
     }
 
 }
@@ -0,0 +1,56 @@
+/**
+ * Packs a whole turn into a single {@code long}: the {@link Move} in bits 0-15 and the optional {@link Capture} that
+ * follows it in bits 16-59. A move of 0 means the side to move had no legal move and only captures, and a capture of
+ * 0 means the turn ends without capturing.
+ */
+public class Ply {
+    private Ply() {
+    }
+
+    public static long encode(int move, long capture) {
+        return move | capture << 16;
+    }
+
+    public static int move(long ply) {
+        return (int) (ply & 0xFFFF);
+    }
+
+    public static long capture(long ply) {
+        return ply >>> 16;
+    }
+
+    /**
+     * Plays a ply on the board with {@link Board#makeMove(int)} and {@link Board#makeCapture(long)}.
+     *
+     * @param board The board to play on
+     * @param ply   The encoded ply
+     */
+    public static void make(Board board, long ply) {
+        if (move(ply) != 0) {
+            board.makeMove(move(ply));
+        }
+        if (capture(ply) != 0) {
+            board.makeCapture(capture(ply));
+        }
+    }
+
+    /**
+     * Takes back a ply played with {@link #make(Board, long)}.
+     *
+     * @param board The board to take the ply back on
+     * @param ply   The encoded ply
+     */
+    public static void unmake(Board board, long ply) {
+        if (capture(ply) != 0) {
+            board.unmakeCapture();
+        }
+        if (move(ply) != 0) {
+            board.unmakeMove();
+        }
+    }
+
+    public static String toString(long ply) {
+        String move = move(ply) == 0 ? "pass" : Move.toString(move(ply));
+        return capture(ply) == 0 ? move : move + " capture " + Capture.toString(capture(ply));
+    }
+}
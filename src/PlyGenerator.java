@@ -0,0 +1,69 @@
+import java.util.Arrays;
+
+/**
+ * Lists the plies of one color: every legal move, each followed by no capture or by one of the captures available
+ * after it. When the color has no move left, its plies are the captures it can make without moving.
+ * Captures are listed first, since they are the plies most worth trying first. A generator keeps its own buffers, so
+ * each thread should use its own.
+ */
+public class PlyGenerator {
+    private static final int INITIAL_PLIES = 1024;
+
+    private final int[] moves = new int[Move.MAX_MOVES];
+    private final long[] captures = new long[CaptureGenerator.MAX_CAPTURES];
+    private long[] plies = new long[INITIAL_PLIES];
+
+    /**
+     * Lists the plies of one color, leaving the board as it was found.
+     *
+     * @param board The board to look at
+     * @param color The color to move
+     * @return The number of plies, which are read from {@link #getPlies()}
+     */
+    public int generate(Board board, Piece.Color color) {
+        int moveCount = board.generateMoves(color, moves);
+        int count = 0;
+        if (moveCount == 0) {
+            count = this.addPlies(board, color, 0, count);
+        }
+        for (int index = 0; index < moveCount; index++) {
+            int move = moves[index];
+            board.makeMove(move);
+            count = this.addPlies(board, color, move, count);
+            board.unmakeMove();
+        }
+        int captureEnd = 0;
+        for (int index = 0; index < count; index++) {
+            if (Ply.capture(plies[index]) != 0) {
+                long ply = plies[index];
+                plies[index] = plies[captureEnd];
+                plies[captureEnd++] = ply;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the plies listed by the last call to {@link #generate(Board, Piece.Color)}.
+     * The array is reused by the next call and may be longer than the number of plies.
+     *
+     * @return The plies encoded by {@link Ply}
+     */
+    public long[] getPlies() {
+        return plies;
+    }
+
+    private int addPlies(Board board, Piece.Color color, int move, int count) {
+        int captureCount = board.enumerateCaptures(color, captures);
+        if (count + captureCount + 1 > plies.length) {
+            plies = Arrays.copyOf(plies, 2 * (count + captureCount + 1));
+        }
+        for (int index = 0; index < captureCount; index++) {
+            plies[count++] = Ply.encode(move, captures[index]);
+        }
+        if (move != 0) {
+            plies[count++] = Ply.encode(move, 0);
+        }
+        return count;
+    }
+}
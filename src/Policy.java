@@ -0,0 +1,23 @@
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the ply of one color, so that games can be played without a human.
+ * A policy may keep scratch buffers, so each thread should use its own.
+ */
+public interface Policy {
+    /**
+     * Choose the next ply. The board must be left as it was found.
+     *
+     * @param board  The board to play on
+     * @param color  The color to move
+     * @param random The source of randomness of the current game
+     * @return The chosen ply encoded by {@link Ply}, or 0 if the color has nothing to play
+     */
+    long choosePly(Board board, Piece.Color color, SplittableRandom random);
+
+    /**
+     * Forgets everything learned in earlier games, so that a game plays the same whichever games came before it.
+     */
+    default void newGame() {
+    }
+}
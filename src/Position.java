@@ -0,0 +1,495 @@
+import java.util.Arrays;
+
+/**
+ * Bitboard representation of the 16x8 field.
+ * Squares are numbered row by row ({@code square = i * 8 + j}), so rows 0-7 live in the low {@code long} of a mask and
+ * rows 8-15 live in the high {@code long}. Occupancy is kept per {@link Piece.Color} and per {@link Piece.Shape}, which
+ * turns occupancy, path and neighbor tests into mask operations. It is also kept per color and per
+ * {@link CaptureTable} number, with a Perfecta standing under each of its components, so the pieces that may capture a
+ * target by their numbers are found without looking at every piece.
+ * <p>
+ * The rays from every square in the 8 directions and the orthogonal and diagonal neighborhoods of every square are
+ * built once, so rays, paths and sieges are tested with a few table lookups and a mask against the occupancy. The
+ * neighborhood of every square is also kept per color as one byte, with a bit for each direction, for {@link Siege}.
+ */
+public class Position {
+    public static final int ROWS = 16;
+    public static final int COLUMNS = 8;
+    public static final int SQUARES = ROWS * COLUMNS;
+
+    private static final BoardGame.Direction[] DIRECTIONS = BoardGame.Direction.values();
+    /**
+     * The squares from a square to the edge in a direction, the square itself excluded, indexed
+     * {@code (direction * SQUARES + square) * 2 + half}.
+     */
+    private static final long[] RAYS = new long[DIRECTIONS.length * SQUARES * 2];
+    private static final int[] RAY_LENGTHS = new int[DIRECTIONS.length * SQUARES];
+    /**
+     * The ordinal of the direction from one square to another, indexed {@code from * SQUARES + to}, or -1 when they do
+     * not share a row, a column or a diagonal.
+     */
+    private static final byte[] LINES = new byte[SQUARES * SQUARES];
+    private static final long[] ORTHOGONAL_NEIGHBORS = new long[SQUARES * 2];
+    private static final long[] DIAGONAL_NEIGHBORS = new long[SQUARES * 2];
+    /**
+     * The neighbor of a square in a direction, indexed {@code square * 8 + direction}, or -1 off the board.
+     */
+    private static final int[] NEIGHBORS = new int[SQUARES * DIRECTIONS.length];
+    private static final int[] OPPOSITES = new int[DIRECTIONS.length];
+    private static final int UNINDEXED = CaptureTable.NUMBERS.length;
+    private static final BoardListener[] NO_LISTENERS = {};
+
+    private final long[] colorOccupancy = new long[2 * Piece.Color.values().length];
+    private final long[] shapeOccupancy = new long[2 * Piece.Shape.values().length];
+    private final long[] numberOccupancy = new long[2 * Piece.Color.values().length * (UNINDEXED + 1)];
+    private final byte[] neighborhoods = new byte[Piece.Color.values().length * SQUARES];
+    private final Piece[] pieces = new Piece[SQUARES];
+    private long hash;
+    private BoardListener[] listeners = NO_LISTENERS;
+
+    static {
+        Arrays.fill(LINES, (byte) -1);
+        Arrays.fill(NEIGHBORS, -1);
+        for (BoardGame.Direction direction : DIRECTIONS) {
+            for (BoardGame.Direction opposite : DIRECTIONS) {
+                if (opposite.getRowStep() == -direction.getRowStep() && opposite.getColumnStep() == -direction.getColumnStep()) {
+                    OPPOSITES[direction.ordinal()] = opposite.ordinal();
+                }
+            }
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            for (BoardGame.Direction direction : DIRECTIONS) {
+                int ray = direction.ordinal() * SQUARES + square;
+                int i = row(square) + direction.getRowStep();
+                int j = column(square) + direction.getColumnStep();
+                if (onBoard(i, j)) {
+                    NEIGHBORS[square * DIRECTIONS.length + direction.ordinal()] = square(i, j);
+                    long[] neighbors = direction.getRowStep() == 0 || direction.getColumnStep() == 0 ? ORTHOGONAL_NEIGHBORS : DIAGONAL_NEIGHBORS;
+                    neighbors[square << 1 | square(i, j) >>> 6] |= 1L << square(i, j);
+                }
+                for (; onBoard(i, j); i += direction.getRowStep(), j += direction.getColumnStep()) {
+                    RAYS[ray << 1 | square(i, j) >>> 6] |= 1L << square(i, j);
+                    RAY_LENGTHS[ray]++;
+                    LINES[square * SQUARES + square(i, j)] = (byte) direction.ordinal();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an empty position.
+     */
+    public Position() {
+    }
+
+    /**
+     * Creates a position from a grid of pieces indexed {@code [i][j]}.
+     *
+     * @param grid The pieces to place, {@code null} for empty squares
+     */
+    public Position(Piece[][] grid) {
+        for (int i = 0; i < ROWS; i++) {
+            for (int j = 0; j < COLUMNS; j++) {
+                if (grid[i][j] != null) {
+                    this.put(square(i, j), grid[i][j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a copy of {@code other}, without its listeners. Pieces are immutable, so the copy shares them.
+     *
+     * @param other The position to copy
+     */
+    public Position(Position other) {
+        System.arraycopy(other.colorOccupancy, 0, this.colorOccupancy, 0, this.colorOccupancy.length);
+        System.arraycopy(other.shapeOccupancy, 0, this.shapeOccupancy, 0, this.shapeOccupancy.length);
+        System.arraycopy(other.numberOccupancy, 0, this.numberOccupancy, 0, this.numberOccupancy.length);
+        System.arraycopy(other.neighborhoods, 0, this.neighborhoods, 0, this.neighborhoods.length);
+        System.arraycopy(other.pieces, 0, this.pieces, 0, this.pieces.length);
+        this.hash = other.hash;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (!(object instanceof Position other) || hash != other.hash || !Arrays.equals(colorOccupancy, other.colorOccupancy) || !Arrays.equals(shapeOccupancy, other.shapeOccupancy) || !Arrays.equals(numberOccupancy, other.numberOccupancy)) {
+            return false;
+        }
+        for (int square = 0; square < SQUARES; square++) {
+            Piece piece = pieces[square];
+            Piece otherPiece = other.pieces[square];
+            if (piece != null && (piece.getNumber() != otherPiece.getNumber() || CaptureTable.numbers(piece) != CaptureTable.numbers(otherPiece))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    public static int square(int i, int j) {
+        return i << 3 | j;
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    public static boolean onBoard(int i, int j) {
+        return i >= 0 && i < ROWS && j >= 0 && j < COLUMNS;
+    }
+
+    /**
+     * Get the mask of the squares orthogonally adjacent to {@code square}.
+     *
+     * @param square The square in the middle of the neighborhood
+     * @param half   0 for the low word of the mask, 1 for the high word
+     * @return The requested word of the neighbor mask
+     */
+    public static long orthogonalNeighbors(int square, int half) {
+        return ORTHOGONAL_NEIGHBORS[square << 1 | half];
+    }
+
+    /**
+     * Get the mask of the squares diagonally adjacent to {@code square}.
+     *
+     * @param square The square in the middle of the neighborhood
+     * @param half   0 for the low word of the mask, 1 for the high word
+     * @return The requested word of the neighbor mask
+     */
+    public static long diagonalNeighbors(int square, int half) {
+        return DIAGONAL_NEIGHBORS[square << 1 | half];
+    }
+
+    /**
+     * Get the neighbor of a square in one direction.
+     *
+     * @param square    The square in the middle of the neighborhood
+     * @param direction The ordinal of the {@link BoardGame.Direction}
+     * @return The neighboring square, or -1 if it is off the board
+     */
+    public static int neighbor(int square, int direction) {
+        return NEIGHBORS[square * DIRECTIONS.length + direction];
+    }
+
+    /**
+     * Get the mask of the squares from {@code square} to the edge of the board in a direction.
+     *
+     * @param square    The square the ray starts from, excluded from the ray
+     * @param direction The direction of the ray
+     * @param half      0 for the low word of the mask, 1 for the high word
+     * @return The requested word of the ray
+     */
+    public static long ray(int square, BoardGame.Direction direction, int half) {
+        return RAYS[(direction.ordinal() * SQUARES + square) << 1 | half];
+    }
+
+    /**
+     * Get one word of the mask of a single square.
+     *
+     * @param square The square
+     * @param half   0 for the low word of the mask, 1 for the high word
+     * @return The bit of the square, or 0 if the square is in the other word
+     */
+    public static long bit(int square, int half) {
+        return square >>> 6 == half ? 1L << square : 0;
+    }
+
+    public Piece get(int square) {
+        return pieces[square];
+    }
+
+    public boolean isOccupied(int square) {
+        return (this.occupied(square >>> 6) & 1L << square) != 0;
+    }
+
+    /**
+     * Get one word of the occupancy mask of both colors.
+     *
+     * @param half 0 for rows 0-7, 1 for rows 8-15
+     * @return The occupied squares in that half of the board
+     */
+    public long occupied(int half) {
+        return colorOccupancy[half] | colorOccupancy[2 + half];
+    }
+
+    public long occupied(Piece.Color color, int half) {
+        return colorOccupancy[color.ordinal() << 1 | half];
+    }
+
+    public long occupied(Piece.Shape shape, int half) {
+        return shapeOccupancy[shape.ordinal() << 1 | half];
+    }
+
+    /**
+     * Get one word of the mask of the squares where a piece of one color counts as any of the given numbers.
+     *
+     * @param color   The color of the pieces
+     * @param numbers A {@link CaptureTable} mask of numbers
+     * @param half    0 for rows 0-7, 1 for rows 8-15
+     * @return The squares of the pieces holding one of the numbers, a Perfecta through any of its components
+     */
+    public long occupiedByNumbers(Piece.Color color, long numbers, int half) {
+        int base = color.ordinal() * (UNINDEXED + 1);
+        long squares = 0;
+        while (numbers != 0) {
+            squares |= numberOccupancy[(base + Long.numberOfTrailingZeros(numbers)) << 1 | half];
+            numbers &= numbers - 1;
+        }
+        return squares;
+    }
+
+    /**
+     * Get one word of the mask of the squares of the pieces of one color whose number is not in {@link CaptureTable},
+     * which {@link #occupiedByNumbers(Piece.Color, long, int)} never returns.
+     *
+     * @param color The color of the pieces
+     * @param half  0 for rows 0-7, 1 for rows 8-15
+     * @return The squares of the pieces with unindexed numbers
+     */
+    public long occupiedByUnindexedNumbers(Piece.Color color, int half) {
+        return numberOccupancy[(color.ordinal() * (UNINDEXED + 1) + UNINDEXED) << 1 | half];
+    }
+
+    /**
+     * Registers a listener to be told about every later change.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(BoardListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * Stops telling a listener about changes.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeListener(BoardListener listener) {
+        for (int index = 0; index < listeners.length; index++) {
+            if (listeners[index] == listener) {
+                BoardListener[] remaining = Arrays.copyOf(listeners, listeners.length - 1);
+                System.arraycopy(listeners, index + 1, remaining, index, listeners.length - index - 1);
+                listeners = remaining;
+                return;
+            }
+        }
+    }
+
+    private void changed(int square, Piece piece) {
+        for (BoardListener listener : listeners) {
+            listener.squareChanged(square, piece);
+        }
+    }
+
+    /**
+     * Get the neighbors of a square that hold a piece of one color.
+     *
+     * @param color  The color of the neighbors
+     * @param square The square in the middle of the neighborhood
+     * @return A mask with the bit {@code 1 << direction.ordinal()} set for each {@link BoardGame.Direction} in which the
+     * neighbor holds a piece of {@code color}
+     */
+    public int neighborhood(Piece.Color color, int square) {
+        return neighborhoods[color.ordinal() * SQUARES + square] & 0xFF;
+    }
+
+    /**
+     * Adds a piece to the neighborhoods of its neighbors, or takes it out if it is already in.
+     */
+    private void toggleNeighborhoods(int square, Piece piece) {
+        int base = piece.getColor().ordinal() * SQUARES;
+        for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+            int neighbor = NEIGHBORS[square * DIRECTIONS.length + direction];
+            if (neighbor >= 0) {
+                neighborhoods[base + neighbor] ^= (byte) (1 << OPPOSITES[direction]);
+            }
+        }
+    }
+
+    /**
+     * Adds a piece to the number occupancy, or takes it out if it is already in.
+     */
+    private void toggleNumbers(int square, Piece piece) {
+        long bit = 1L << square;
+        int half = square >>> 6;
+        int base = piece.getColor().ordinal() * (UNINDEXED + 1);
+        long numbers = CaptureTable.numbers(piece);
+        if (numbers == 0) {
+            numberOccupancy[(base + UNINDEXED) << 1 | half] ^= bit;
+        }
+        while (numbers != 0) {
+            numberOccupancy[(base + Long.numberOfTrailingZeros(numbers)) << 1 | half] ^= bit;
+            numbers &= numbers - 1;
+        }
+    }
+
+    /**
+     * Places a piece on an empty square.
+     *
+     * @param square The square to place the piece on
+     * @param piece  The piece to place
+     */
+    public void put(int square, Piece piece) {
+        long bit = 1L << square;
+        int half = square >>> 6;
+        colorOccupancy[piece.getColor().ordinal() << 1 | half] |= bit;
+        shapeOccupancy[piece.getShape().ordinal() << 1 | half] |= bit;
+        pieces[square] = piece;
+        hash ^= Zobrist.piece(square, piece);
+        this.toggleNumbers(square, piece);
+        this.toggleNeighborhoods(square, piece);
+        this.changed(square, piece);
+    }
+
+    /**
+     * Removes the piece standing on {@code square}.
+     *
+     * @param square The square to clear
+     * @return The removed piece, or {@code null} if the square was empty
+     */
+    public Piece remove(int square) {
+        Piece piece = pieces[square];
+        if (piece == null) {
+            return null;
+        }
+        long bit = ~(1L << square);
+        int half = square >>> 6;
+        colorOccupancy[piece.getColor().ordinal() << 1 | half] &= bit;
+        shapeOccupancy[piece.getShape().ordinal() << 1 | half] &= bit;
+        pieces[square] = null;
+        hash ^= Zobrist.piece(square, piece);
+        this.toggleNumbers(square, piece);
+        this.toggleNeighborhoods(square, piece);
+        this.changed(square, piece);
+        return piece;
+    }
+
+    /**
+     * Removes one component from the Perfecta standing on {@code square}.
+     *
+     * @param square    The square of the Perfecta
+     * @param component The index of the component to remove
+     */
+    public void capturePerfectaComponent(int square, int component) {
+        Perfecta perfecta = (Perfecta) pieces[square];
+        this.changed(square, perfecta);
+        hash ^= Zobrist.piece(square, perfecta);
+        this.toggleNumbers(square, perfecta);
+        pieces[square] = perfecta.without(component);
+        hash ^= Zobrist.piece(square, pieces[square]);
+        this.toggleNumbers(square, pieces[square]);
+        this.changed(square, pieces[square]);
+    }
+
+    /**
+     * Puts back a component removed by {@link #capturePerfectaComponent(int, int)}.
+     *
+     * @param square The square of the Perfecta
+     * @param piece  The removed component, which goes back to its place in the order of the components
+     */
+    public void restorePerfectaComponent(int square, Piece piece) {
+        Perfecta perfecta = (Perfecta) pieces[square];
+        this.changed(square, perfecta);
+        hash ^= Zobrist.piece(square, perfecta);
+        this.toggleNumbers(square, perfecta);
+        pieces[square] = perfecta.with(piece);
+        hash ^= Zobrist.piece(square, pieces[square]);
+        this.toggleNumbers(square, pieces[square]);
+        this.changed(square, pieces[square]);
+    }
+
+    /**
+     * Get the Zobrist hash of the pieces on the board, kept up to date by every change.
+     *
+     * @return The hash of the position
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Moves the piece on {@code from} to the empty square {@code to}.
+     *
+     * @param from The square the piece stands on
+     * @param to   The square the piece is moved to
+     */
+    public void relocate(int from, int to) {
+        this.put(to, this.remove(from));
+    }
+
+    /**
+     * Check whether every square of the given mask is empty.
+     *
+     * @param maskLo The low word of the mask
+     * @param maskHi The high word of the mask
+     * @return {@code true} if none of the squares are occupied
+     */
+    public boolean isEmpty(long maskLo, long maskHi) {
+        return ((this.occupied(0) & maskLo) | (this.occupied(1) & maskHi)) == 0;
+    }
+
+    /**
+     * Check whether the {@code amount} squares next to {@code from} in the given direction are on the board and empty.
+     *
+     * @param from      The square the ray starts from, excluded from the test
+     * @param direction The direction of the ray
+     * @param amount    The length of the ray
+     * @return {@code true} if the whole ray fits on the board and is empty
+     */
+    public boolean isRayClear(int from, BoardGame.Direction direction, int amount) {
+        int ray = direction.ordinal() * SQUARES + from;
+        if (amount <= 0 || amount > RAY_LENGTHS[ray]) {
+            return amount == 0;
+        }
+        int beyond = (direction.ordinal() * SQUARES + from + amount * (direction.getRowStep() * COLUMNS + direction.getColumnStep())) << 1;
+        return this.isEmpty(RAYS[ray << 1] & ~RAYS[beyond], RAYS[ray << 1 | 1] & ~RAYS[beyond | 1]);
+    }
+
+    /**
+     * Check whether the squares strictly between two squares are empty.
+     * Squares that do not share a row, a column or a diagonal have no straight path to block.
+     *
+     * @param from The square the path starts at
+     * @param to   The square the path ends at
+     * @return {@code true} if the path is clear and {@code false} if the path is not clear
+     */
+    public boolean isPathClear(int from, int to) {
+        int line = LINES[from * SQUARES + to];
+        if (line < 0) {
+            return true;
+        }
+        int ray = (line * SQUARES + from) << 1;
+        int beyond = (line * SQUARES + to) << 1;
+        return this.isEmpty((RAYS[ray] ^ RAYS[beyond]) & ~bit(to, 0), (RAYS[ray | 1] ^ RAYS[beyond | 1]) & ~bit(to, 1));
+    }
+
+    /**
+     * Find the first piece along a ray.
+     *
+     * @param from      The square the ray starts from, excluded from the search
+     * @param direction The direction of the ray
+     * @return The square of the nearest piece in that direction, or -1 if the ray is empty up to the edge
+     */
+    public int firstOccupied(int from, BoardGame.Direction direction) {
+        int ray = (direction.ordinal() * SQUARES + from) << 1;
+        long lo = RAYS[ray] & this.occupied(0);
+        long hi = RAYS[ray | 1] & this.occupied(1);
+        if (direction.getRowStep() * COLUMNS + direction.getColumnStep() > 0) {
+            return lo != 0 ? Long.numberOfTrailingZeros(lo) : hi != 0 ? 64 | Long.numberOfTrailingZeros(hi) : -1;
+        }
+        return hi != 0 ? 64 | 63 - Long.numberOfLeadingZeros(hi) : lo != 0 ? 63 - Long.numberOfLeadingZeros(lo) : -1;
+    }
+}
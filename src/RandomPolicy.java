@@ -0,0 +1,23 @@
+import java.util.SplittableRandom;
+
+/**
+ * Plays a random move, then a random capture or none, each option being equally likely.
+ */
+public class RandomPolicy implements Policy {
+    private final int[] moves = new int[Move.MAX_MOVES];
+    private final long[] captures = new long[CaptureGenerator.MAX_CAPTURES];
+
+    public long choosePly(Board board, Piece.Color color, SplittableRandom random) {
+        int moveCount = board.generateMoves(color, moves);
+        int move = moveCount == 0 ? 0 : moves[random.nextInt(moveCount)];
+        if (move != 0) {
+            board.makeMove(move);
+        }
+        int captureCount = board.enumerateCaptures(color, captures);
+        if (move != 0) {
+            board.unmakeMove();
+        }
+        int choice = random.nextInt(captureCount + 1);
+        return Ply.encode(move, choice == captureCount ? 0 : captures[choice]);
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Decides whether the owner of a {@link Perfecta} pays a ransom instead of losing it, so that {@link Board} never has
+ * to ask anyone.
+ */
+public interface RansomPolicy {
+    /**
+     * Never pays a ransom.
+     */
+    RansomPolicy DECLINE = (board, perfectaSquare, owner) -> -1;
+
+    /**
+     * Choose the piece to give up in place of the Perfecta.
+     * An answer that is not a square holding another piece of {@code owner} declines the ransom.
+     *
+     * @param board          The board the capture happens on, before anything is removed
+     * @param perfectaSquare The square of the Perfecta being captured
+     * @param owner          The color of the Perfecta
+     * @return The square ({@code i * 8 + j}) of the piece to give up, or -1 to let the capture happen
+     */
+    int chooseRansom(Board board, int perfectaSquare, Piece.Color owner);
+}
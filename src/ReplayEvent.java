@@ -0,0 +1,108 @@
+import java.nio.file.Path;
+
+/**
+ * One ply of a game replayed by {@link GameReplayer}, seen right after the ply was played.
+ * Each worker reuses a single event and a single board, so a consumer must copy whatever it keeps, for example with
+ * {@link BoardNotation#format(Board, Piece.Color)}.
+ */
+public class ReplayEvent {
+    private static final long NO_CAPTURE = 0;
+
+    private Path file;
+    private long game;
+    private Piece.Color winner;
+    private int plyIndex;
+    private long ply;
+    private Piece.Color color;
+    private Board board;
+    private boolean perfectaPartialCapture;
+
+    void startGame(Path file, long game, Piece.Color winner, Board board) {
+        this.file = file;
+        this.game = game;
+        this.winner = winner;
+        this.board = board;
+    }
+
+    void setPly(int plyIndex, long ply, Piece.Color color, boolean perfectaPartialCapture) {
+        this.plyIndex = plyIndex;
+        this.ply = ply;
+        this.color = color;
+        this.perfectaPartialCapture = perfectaPartialCapture;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Get the index of the game in its file.
+     *
+     * @return The index of the game, starting at 0
+     */
+    public long getGame() {
+        return game;
+    }
+
+    /**
+     * Get the recorded result of the game.
+     *
+     * @return The winning color, or {@code null} if the game ended without a winner
+     */
+    public Piece.Color getWinner() {
+        return winner;
+    }
+
+    public int getPlyIndex() {
+        return plyIndex;
+    }
+
+    /**
+     * Get the ply that was just played.
+     *
+     * @return The ply encoded by {@link Ply}
+     */
+    public long getPly() {
+        return ply;
+    }
+
+    /**
+     * Get the color that played the ply.
+     *
+     * @return The color that just moved
+     */
+    public Piece.Color getColor() {
+        return color;
+    }
+
+    /**
+     * Get the board after the ply. It changes as the replay goes on and must not be changed by the consumer.
+     *
+     * @return The board of the worker
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    public boolean isCapture() {
+        return Ply.capture(ply) != NO_CAPTURE;
+    }
+
+    /**
+     * Get the rule of the capture made by the ply.
+     *
+     * @return The capture rule, or {@code null} if the ply made no capture
+     */
+    public BoardGame.CaptureResult getCaptureRule() {
+        return this.isCapture() ? Capture.rule(Ply.capture(ply)) : null;
+    }
+
+    /**
+     * Check whether the ply took a single component of a Perfecta, leaving the rest of it on the board.
+     *
+     * @return {@code true} if a Perfecta was partially captured
+     */
+    public boolean isPerfectaPartialCapture() {
+        return perfectaPartialCapture;
+    }
+}
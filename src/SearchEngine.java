@@ -0,0 +1,316 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Alpha-beta search with iterative deepening over the plies of a {@link Board}.
+ * A ply is a whole turn, a move followed by an optional capture, so that every node of the tree has the other color to
+ * move. Results are shared through a {@link TranspositionTable}, which also provides the first ply to try at every node.
+ * Ransoms are never paid during the search. An engine keeps scratch buffers, so each thread needs its own engine.
+ */
+public class SearchEngine {
+    public static final int MAX_DEPTH = 64;
+    public static final int WIN_SCORE = 30000;
+    /**
+     * A time budget that never runs out, for searches limited by depth or nodes only.
+     */
+    public static final long NO_TIME_LIMIT = Long.MAX_VALUE;
+
+    private static final int LIMIT_CHECK_INTERVAL = 1024;
+    private static final int INITIAL_PLIES = 1024;
+
+    private final TranspositionTable table;
+    private final PlyGenerator plyGenerator = new PlyGenerator();
+    private final long[][] plies = new long[MAX_DEPTH + 1][INITIAL_PLIES];
+    private final long[][] principalVariation = new long[MAX_DEPTH + 1][MAX_DEPTH + 1];
+    private final int[] principalLength = new int[MAX_DEPTH + 1];
+    private final Map<String, Tablebase> tablebases = new HashMap<>();
+    private OpeningBook book;
+    private EvaluationWeights weights = EvaluationWeights.DEFAULT;
+    private Evaluator evaluator;
+    private Board board;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private int iteration;
+    private int firstIteration;
+    private boolean stopped;
+    private volatile boolean stopRequested;
+
+    /**
+     * Creates an engine.
+     *
+     * @param table The transposition table to read and fill
+     */
+    public SearchEngine(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Changes the weights of the evaluation used at the leaves of the search.
+     *
+     * @param weights The weights of the next searches
+     */
+    public void setWeights(EvaluationWeights weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Plays from an opening book before searching: positions found in the book are answered with the book ply and a
+     * result of depth 0.
+     *
+     * @param book The book to probe, or {@code null} to always search
+     */
+    public void setBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Plays perfectly from a tablebase instead of searching: boards it covers are answered with its best ply and a
+     * result of depth 0, scored like a win or a loss found by the search.
+     *
+     * @param tablebase The tablebase to probe; it replaces any tablebase of the same material
+     */
+    public void addTablebase(Tablebase tablebase) {
+        tablebases.put(tablebase.getMaterial(), tablebase);
+    }
+
+    /**
+     * Searches for the best ply of one color, deepening one ply at a time until a limit is reached.
+     * The first iteration always completes; a later iteration cut short by a limit is discarded.
+     * The board is left as it was found.
+     *
+     * @param board      The board to search
+     * @param color      The color to move
+     * @param maxDepth   The deepest iteration to run, at most {@link #MAX_DEPTH}
+     * @param timeMillis The time budget in milliseconds, or {@link #NO_TIME_LIMIT}
+     * @param maxNodes   The node budget
+     * @return The best ply with the principal variation, the depth reached and the node count
+     */
+    public SearchResult search(Board board, Piece.Color color, int maxDepth, long timeMillis, long maxNodes) {
+        if (book != null) {
+            long start = System.nanoTime();
+            long bookPly = this.bookPly(board, color);
+            if (bookPly != 0) {
+                return new SearchResult(0, 0, 0, System.nanoTime() - start, new long[]{bookPly});
+            }
+        }
+        if (!tablebases.isEmpty()) {
+            long start = System.nanoTime();
+            Tablebase tablebase = tablebases.get(Tablebase.material(board));
+            if (tablebase != null && tablebase.covers(board)) {
+                int value = tablebase.probe(board, color);
+                long tablebasePly = tablebase.bestPly(board, color, plyGenerator);
+                int score = value == Tablebase.DRAW ? 0 : Tablebase.isWin(value) ? WIN_SCORE - value : value - WIN_SCORE;
+                return new SearchResult(score, 0, 0, System.nanoTime() - start, tablebasePly == 0 ? new long[0] : new long[]{tablebasePly});
+            }
+        }
+        table.newSearch();
+        this.clearStop();
+        return this.iterate(board, color, 1, maxDepth, timeMillis, maxNodes);
+    }
+
+    /**
+     * Probe the book, keeping the book ply only if it is legal so that a key collision cannot play a wrong ply.
+     */
+    private long bookPly(Board board, Piece.Color color) {
+        long bookPly = book.probe(board, color);
+        if (bookPly == 0) {
+            return 0;
+        }
+        int count = plyGenerator.generate(board, color);
+        long[] generated = plyGenerator.getPlies();
+        for (int index = 0; index < count; index++) {
+            if (generated[index] == bookPly) {
+                return bookPly;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Asks a running search to return as soon as possible. Safe to call from any thread; a stopped search still
+     * returns the result of its last completed iteration.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Runs the iterative deepening loop without starting a new transposition table generation, so that several
+     * engines can take part in the same search.
+     *
+     * @param board      The board to search
+     * @param color      The color to move
+     * @param firstDepth The depth of the first iteration, which always completes unless {@link #stop()} is called
+     * @param maxDepth   The deepest iteration to run, at most {@link #MAX_DEPTH}
+     * @param timeMillis The time budget in milliseconds, or {@link #NO_TIME_LIMIT}
+     * @param maxNodes   The node budget
+     * @return The best ply with the principal variation, the depth reached and the node count
+     */
+    SearchResult iterate(Board board, Piece.Color color, int firstDepth, int maxDepth, long timeMillis, long maxNodes) {
+        long start = System.nanoTime();
+        this.board = board;
+        this.nodes = 0;
+        this.nodeLimit = maxNodes;
+        this.deadline = deadline(start, timeMillis);
+        this.firstIteration = firstDepth;
+        this.stopped = false;
+        this.evaluator = new Evaluator(board, weights);
+        try {
+            return this.deepen(color, firstDepth, maxDepth, start);
+        } finally {
+            evaluator.detach();
+            evaluator = null;
+        }
+    }
+
+    /**
+     * Get the {@link System#nanoTime()} at which a time budget runs out. The budget saturates instead of overflowing,
+     * and the deadline must be compared as {@code System.nanoTime() - deadline >= 0}, which stays right when the sum
+     * wraps around.
+     *
+     * @param start      The {@link System#nanoTime()} the budget starts from
+     * @param timeMillis The time budget in milliseconds, or {@link #NO_TIME_LIMIT}
+     * @return The deadline
+     */
+    static long deadline(long start, long timeMillis) {
+        return start + Math.max(0, Math.min(timeMillis, Long.MAX_VALUE / 1_000_000L)) * 1_000_000L;
+    }
+
+    /**
+     * The iterative deepening loop of {@link #iterate}, run while the evaluator follows the board.
+     */
+    private SearchResult deepen(Piece.Color color, int firstDepth, int maxDepth, long start) {
+        int bestScore = evaluator.evaluate(color);
+        int bestDepth = 0;
+        long[] bestLine = new long[0];
+        for (iteration = firstDepth; iteration <= Math.min(maxDepth, MAX_DEPTH); iteration++) {
+            int score = this.search(iteration, 0, -WIN_SCORE - 1, WIN_SCORE + 1, color);
+            if (stopped) {
+                break;
+            }
+            bestScore = score;
+            bestDepth = iteration;
+            bestLine = Arrays.copyOf(principalVariation[0], principalLength[0]);
+            if (Math.abs(score) > WIN_SCORE - MAX_DEPTH || nodes >= nodeLimit || System.nanoTime() - deadline >= 0 || stopRequested) {
+                break;
+            }
+        }
+        this.board = null;
+        return new SearchResult(bestScore, bestDepth, nodes, System.nanoTime() - start, bestLine);
+    }
+
+    private int search(int depth, int ply, int alpha, int beta, Piece.Color color) {
+        principalLength[ply] = ply;
+        nodes++;
+        if ((nodes & (LIMIT_CHECK_INTERVAL - 1)) == 0 && (stopRequested || iteration > firstIteration && (nodes >= nodeLimit || System.nanoTime() - deadline >= 0))) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+        Piece.Color winner = board.getWinner();
+        if (winner != null) {
+            return winner == color ? WIN_SCORE - ply : ply - WIN_SCORE;
+        }
+        if (depth == 0 || ply == MAX_DEPTH) {
+            return evaluator.evaluate(color);
+        }
+        long key = board.hash(color);
+        long entry = table.probe(key);
+        long hashPly = 0;
+        if (entry != TranspositionTable.MISS) {
+            hashPly = table.probeMove(key);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT || bound == TranspositionTable.LOWER_BOUND && score >= beta || bound == TranspositionTable.UPPER_BOUND && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+        int count = this.generatePlies(color, ply, hashPly);
+        if (count == 0) {
+            return evaluator.evaluate(color);
+        }
+        long[] candidates = plies[ply];
+        int originalAlpha = alpha;
+        int bestScore = -WIN_SCORE - 1;
+        long bestPly = candidates[0];
+        for (int index = 0; index < count; index++) {
+            long candidate = candidates[index];
+            Ply.make(board, candidate);
+            int score = -this.search(depth - 1, ply + 1, -beta, -alpha, color.opposite());
+            Ply.unmake(board, candidate);
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestPly = candidate;
+                if (score > alpha) {
+                    alpha = score;
+                    principalVariation[ply][ply] = candidate;
+                    System.arraycopy(principalVariation[ply + 1], ply + 1, principalVariation[ply], ply + 1, principalLength[ply + 1] - ply - 1);
+                    principalLength[ply] = principalLength[ply + 1];
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        table.store(key, bestPly, toTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Lists the plies of one color at a search depth, with the ply from the transposition table in front when it is
+     * legal.
+     */
+    private int generatePlies(Piece.Color color, int ply, long hashPly) {
+        int count = plyGenerator.generate(board, color);
+        if (count > plies[ply].length) {
+            plies[ply] = new long[2 * count];
+        }
+        long[] candidates = plies[ply];
+        System.arraycopy(plyGenerator.getPlies(), 0, candidates, 0, count);
+        if (hashPly != 0) {
+            for (int index = 0; index < count; index++) {
+                if (candidates[index] == hashPly) {
+                    System.arraycopy(candidates, 0, candidates, 1, index);
+                    candidates[0] = hashPly;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Win scores are stored relative to the node rather than the root, so that they stay correct when the position is
+     * reached at another distance from the root.
+     */
+    private static int toTable(int score, int ply) {
+        if (score > WIN_SCORE - MAX_DEPTH) {
+            return score + ply;
+        } else if (score < MAX_DEPTH - WIN_SCORE) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_SCORE - MAX_DEPTH) {
+            return score - ply;
+        } else if (score < MAX_DEPTH - WIN_SCORE) {
+            return score + ply;
+        }
+        return score;
+    }
+}
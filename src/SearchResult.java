@@ -0,0 +1,75 @@
+/**
+ * The outcome of a {@link SearchEngine} search: the best ply found and the statistics of the search.
+ */
+public class SearchResult {
+    private final long bestPly;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+    private final long[] principalVariation;
+
+    /**
+     * Creates a search result.
+     *
+     * @param score              The score of the best ply, from the side to move's point of view
+     * @param depth              The deepest iteration that was completed
+     * @param nodes              The number of nodes visited
+     * @param nanos              The time the search took in nanoseconds
+     * @param principalVariation The expected line of play, starting with the best ply, encoded by {@link Ply}
+     */
+    public SearchResult(int score, int depth, long nodes, long nanos, long[] principalVariation) {
+        this.bestPly = principalVariation.length == 0 ? 0 : principalVariation[0];
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * Get the ply the engine chose.
+     *
+     * @return The best ply encoded by {@link Ply}, or 0 if the side to move had nothing to play
+     */
+    public long getBestPly() {
+        return bestPly;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Get the search speed.
+     *
+     * @return The number of nodes visited per second
+     */
+    public long getNodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    public String toString() {
+        StringBuilder result = new StringBuilder("depth ").append(depth).append(" score ").append(score).append(" nodes ").append(nodes).append(" nps ").append(this.getNodesPerSecond()).append(" pv");
+        for (long ply : principalVariation) {
+            result.append(" | ").append(Ply.toString(ply));
+        }
+        return result.toString();
+    }
+}
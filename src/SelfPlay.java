@@ -0,0 +1,182 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Headless simulator that plays many games between two {@link Policy}s on every core and prints aggregate statistics.
+ * Every game gets a {@link SplittableRandom} seeded from the run seed and the index of the game, so a run gives the
+ * same results whatever the number of threads and the order the games are played in.
+ * <p>
+ * Usage: {@code java SelfPlay [--games N] [--wincon N] [--black POLICY] [--white POLICY] [--seed N] [--threads N]
+ * [--max-plies N] [--record FILE] [--table-mb N]}, where a policy is {@code random}, {@code greedy} or
+ * {@code engine[:depth[:nodes]]}, and the games are appended to the {@link GameRecordWriter} file when one is given.
+ * Every engine policy has its own transposition table of {@code --table-mb} megabytes.
+ */
+public class SelfPlay {
+    private static final int ENGINE_DEPTH = 2;
+    private static final long ENGINE_NODES = 100_000;
+    private static final int ENGINE_TABLE_MEGABYTES = 16;
+
+    private final int winCon;
+    private final int maxPlies;
+    private final long seed;
+    private final ThreadLocal<Policy> blackPolicy;
+    private final ThreadLocal<Policy> whitePolicy;
+    private GameRecordWriter recorder;
+
+    /**
+     * Creates a simulator.
+     *
+     * @param winCon      The number of captures required to win each game
+     * @param maxPlies    The number of plies after which a game is called a draw
+     * @param seed        The seed of the run
+     * @param blackPolicy Creates the policy of black, once per thread
+     * @param whitePolicy Creates the policy of white, once per thread
+     */
+    public SelfPlay(int winCon, int maxPlies, long seed, Supplier<Policy> blackPolicy, Supplier<Policy> whitePolicy) {
+        this.winCon = winCon;
+        this.maxPlies = maxPlies;
+        this.seed = seed;
+        this.blackPolicy = ThreadLocal.withInitial(blackPolicy);
+        this.whitePolicy = ThreadLocal.withInitial(whitePolicy);
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException, IOException {
+        int games = 1000;
+        int winCon = 5;
+        int maxPlies = 1000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String black = "random";
+        String white = "random";
+        String record = null;
+        int tableMegabytes = ENGINE_TABLE_MEGABYTES;
+        for (int arg = 0; arg + 1 < args.length; arg += 2) {
+            String value = args[arg + 1];
+            switch (args[arg]) {
+                case "--games" -> games = Integer.parseInt(value);
+                case "--wincon" -> winCon = Integer.parseInt(value);
+                case "--max-plies" -> maxPlies = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--black" -> black = value;
+                case "--white" -> white = value;
+                case "--record" -> record = value;
+                case "--table-mb" -> tableMegabytes = Integer.parseInt(value);
+                default -> {
+                    System.out.println("Unknown option: " + args[arg]);
+                    System.exit(1);
+                }
+            }
+        }
+        SelfPlay selfPlay = new SelfPlay(winCon, maxPlies, seed, parsePolicy(black, tableMegabytes), parsePolicy(white, tableMegabytes));
+        System.out.println("Playing " + games + " games up to " + winCon + " captures, black " + black + " against white " + white + " on " + threads + " threads");
+        long start = System.nanoTime();
+        SelfPlayStats stats;
+        if (record == null) {
+            stats = selfPlay.run(games, threads);
+        } else {
+            try (GameRecordWriter recorder = new GameRecordWriter(Path.of(record))) {
+                selfPlay.setRecorder(recorder);
+                stats = selfPlay.run(games, threads);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.println(stats);
+        System.out.printf("%.1f games/s%n", games * 1e9 / nanos);
+    }
+
+    /**
+     * Reads a policy name from the command line.
+     *
+     * @param name           {@code random}, {@code greedy} or {@code engine[:depth[:nodes]]}
+     * @param tableMegabytes The size of the transposition table of each engine policy in megabytes
+     * @return A supplier of new instances of the policy
+     */
+    public static Supplier<Policy> parsePolicy(String name, int tableMegabytes) {
+        String[] parts = name.toLowerCase().split(":");
+        switch (parts[0]) {
+            case "random":
+                return RandomPolicy::new;
+            case "greedy":
+                return GreedyCapturePolicy::new;
+            case "engine":
+                int depth = parts.length > 1 ? Integer.parseInt(parts[1]) : ENGINE_DEPTH;
+                long nodes = parts.length > 2 ? Long.parseLong(parts[2]) : ENGINE_NODES;
+                return () -> new EnginePolicy(depth, nodes, tableMegabytes);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    /**
+     * Records every game played from now on.
+     *
+     * @param recorder The file to append the games to, or {@code null} to stop recording
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Plays games on a fork-join pool, adding each finished game to the statistics and then forgetting it.
+     *
+     * @param games   The number of games to play
+     * @param threads The number of worker threads
+     * @return The statistics of every game
+     */
+    public SelfPlayStats run(int games, int threads) throws InterruptedException, ExecutionException {
+        SelfPlayStats stats = new SelfPlayStats();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, games).parallel().forEach(game -> this.play(game, stats))).get();
+        } finally {
+            pool.shutdown();
+        }
+        return stats;
+    }
+
+    /**
+     * Plays one game. Ransoms are never paid.
+     *
+     * @param game  The index of the game, which seeds its randomness
+     * @param stats The statistics to add the game to
+     */
+    public void play(int game, SelfPlayStats stats) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + game);
+        Policy black = blackPolicy.get();
+        Policy white = whitePolicy.get();
+        black.newGame();
+        white.newGame();
+        Board board = new Board(winCon);
+        long[] captures = new long[BoardGame.CaptureResult.values().length];
+        long[] record = recorder == null ? null : new long[maxPlies];
+        Piece.Color turn = Piece.Color.BLACK;
+        int plies = 0;
+        while (board.getWinner() == null && plies < maxPlies) {
+            long ply = (turn == Piece.Color.BLACK ? black : white).choosePly(board, turn, random);
+            Ply.make(board, ply);
+            if (record != null) {
+                record[plies] = ply;
+            }
+            if (Ply.capture(ply) != 0) {
+                captures[Capture.rule(Ply.capture(ply)).ordinal()]++;
+            }
+            turn = turn.opposite();
+            plies++;
+        }
+        stats.add(board.getWinner(), plies, captures);
+        if (record != null) {
+            try {
+                recorder.writeGame(new Board(winCon), Piece.Color.BLACK, record, plies, board.getWinner());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+
+/**
+ * Running totals of a {@link SelfPlay} run. Games are added as they finish, from any thread, and only their totals are
+ * kept.
+ */
+public class SelfPlayStats {
+    private static final BoardGame.CaptureResult[] RULES = BoardGame.CaptureResult.values();
+
+    private long games;
+    private long blackWins;
+    private long whiteWins;
+    private long plies;
+    private long squaredPlies;
+    private int shortestGame = Integer.MAX_VALUE;
+    private int longestGame;
+    private final long[] captures = new long[RULES.length];
+
+    /**
+     * Adds a finished game.
+     *
+     * @param winner   The winning color, or {@code null} for a draw
+     * @param plies    The length of the game in plies
+     * @param captures The number of captures made by each rule, indexed by {@link BoardGame.CaptureResult#ordinal()}
+     */
+    public synchronized void add(Piece.Color winner, int plies, long[] captures) {
+        games++;
+        if (winner == Piece.Color.BLACK) {
+            blackWins++;
+        } else if (winner == Piece.Color.WHITE) {
+            whiteWins++;
+        }
+        this.plies += plies;
+        squaredPlies += (long) plies * plies;
+        shortestGame = Math.min(shortestGame, plies);
+        longestGame = Math.max(longestGame, plies);
+        for (int rule = 0; rule < captures.length; rule++) {
+            this.captures[rule] += captures[rule];
+        }
+    }
+
+    public synchronized long getGames() {
+        return games;
+    }
+
+    public synchronized long getBlackWins() {
+        return blackWins;
+    }
+
+    public synchronized long getWhiteWins() {
+        return whiteWins;
+    }
+
+    public synchronized long getDraws() {
+        return games - blackWins - whiteWins;
+    }
+
+    public synchronized double getAverageLength() {
+        return games == 0 ? 0 : (double) plies / games;
+    }
+
+    /**
+     * Get the number of captures made by one rule over every game.
+     *
+     * @param rule The capture rule
+     * @return The number of captures made by {@code rule}
+     */
+    public synchronized long getCaptures(BoardGame.CaptureResult rule) {
+        return captures[rule.ordinal()];
+    }
+
+    public synchronized String toString() {
+        if (games == 0) {
+            return "No games played";
+        }
+        double average = this.getAverageLength();
+        double deviation = Math.sqrt(Math.max(0, (double) squaredPlies / games - average * average));
+        long totalCaptures = Arrays.stream(captures).sum();
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("games %d: black %.1f%%, white %.1f%%, draws %.1f%%%n", games, 100.0 * blackWins / games, 100.0 * whiteWins / games, 100.0 * this.getDraws() / games));
+        result.append(String.format("length %.1f plies on average (sd %.1f, shortest %d, longest %d)%n", average, deviation, shortestGame, longestGame));
+        result.append("captures ").append(totalCaptures);
+        for (BoardGame.CaptureResult rule : RULES) {
+            if (rule.isSuccess()) {
+                result.append(String.format("%n  %-18s %d (%.1f%%)", rule, captures[rule.ordinal()], totalCaptures == 0 ? 0 : 100.0 * captures[rule.ordinal()] / totalCaptures));
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * The siege rules as a single test on the neighborhood of the target.
+ * A piece is besieged when every one of its orthogonal neighbors holds an enemy piece, which is a 2-sided siege in a
+ * corner, a 3-sided siege on an edge and a 4-sided siege elsewhere, or when all four of its diagonal neighbors do, which
+ * is a 4-sided siege away from the edges. The two enclosing sets are found at once by looking up the square and its
+ * {@link Position#neighborhood(Piece.Color, int)} in a table built once, so no group of pieces is ever tried.
+ */
+public class Siege {
+    /**
+     * The enclosure made of the orthogonal neighbors of the target.
+     */
+    public static final int ORTHOGONAL = 1;
+    /**
+     * The enclosure made of the four diagonal neighbors of the target.
+     */
+    public static final int DIAGONAL = 2;
+
+    private static final int NEIGHBORHOODS = 1 << BoardGame.Direction.ALL.length;
+    private static final BoardGame.CaptureResult[] RULES = new BoardGame.CaptureResult[Position.SQUARES];
+    /**
+     * The enclosures completed by each neighborhood of each square, indexed {@code square * 256 + neighborhood}.
+     */
+    private static final byte[] ENCLOSURES = new byte[Position.SQUARES * NEIGHBORHOODS];
+
+    static {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            int orthogonal = 0;
+            int diagonal = 0;
+            for (BoardGame.Direction direction : BoardGame.Direction.ALL) {
+                if (Position.onBoard(Position.row(square) + direction.getRowStep(), Position.column(square) + direction.getColumnStep())) {
+                    if (direction.getRowStep() == 0 || direction.getColumnStep() == 0) {
+                        orthogonal |= 1 << direction.ordinal();
+                    } else {
+                        diagonal |= 1 << direction.ordinal();
+                    }
+                }
+            }
+            RULES[square] = switch (Integer.bitCount(orthogonal)) {
+                case 2 -> BoardGame.CaptureResult.TWO_SIDED_SIEGE;
+                case 3 -> BoardGame.CaptureResult.THREE_SIDED_SIEGE;
+                default -> BoardGame.CaptureResult.FOUR_SIDED_SIEGE;
+            };
+            for (int neighborhood = 0; neighborhood < NEIGHBORHOODS; neighborhood++) {
+                int enclosures = 0;
+                if ((neighborhood & orthogonal) == orthogonal) {
+                    enclosures |= ORTHOGONAL;
+                }
+                if (Integer.bitCount(diagonal) == 4 && (neighborhood & diagonal) == diagonal) {
+                    enclosures |= DIAGONAL;
+                }
+                ENCLOSURES[square * NEIGHBORHOODS + neighborhood] = (byte) enclosures;
+            }
+        }
+    }
+
+    private Siege() {
+    }
+
+    /**
+     * Find every set of pieces of one color that besieges a target.
+     *
+     * @param position The position to look at
+     * @param color    The besieging color
+     * @param target   The square of the target
+     * @return A combination of {@link #ORTHOGONAL} and {@link #DIAGONAL}, or 0 if the target is not besieged
+     */
+    public static int enclosures(Position position, Piece.Color color, int target) {
+        return ENCLOSURES[target * NEIGHBORHOODS + position.neighborhood(color, target)];
+    }
+
+    /**
+     * Get the squares of an enclosure.
+     *
+     * @param target    The square of the target
+     * @param enclosure {@link #ORTHOGONAL} or {@link #DIAGONAL}
+     * @param half      0 for the low word of the mask, 1 for the high word
+     * @return The requested word of the mask of the besieging squares
+     */
+    public static long capturers(int target, int enclosure, int half) {
+        return enclosure == ORTHOGONAL ? Position.orthogonalNeighbors(target, half) : Position.diagonalNeighbors(target, half);
+    }
+
+    /**
+     * Get the rule an enclosure captures by.
+     *
+     * @param target    The square of the target
+     * @param enclosure {@link #ORTHOGONAL} or {@link #DIAGONAL}
+     * @return The 2-, 3- or 4-sided siege
+     */
+    public static BoardGame.CaptureResult rule(int target, int enclosure) {
+        return enclosure == ORTHOGONAL ? RULES[target] : BoardGame.CaptureResult.FOUR_SIDED_SIEGE;
+    }
+
+    /**
+     * Find the siege a set of squares would make around a target, whatever stands on them.
+     *
+     * @param target The square of the target
+     * @param lo     The low word of the set
+     * @param hi     The high word of the set
+     * @return The rule of the siege, or {@code null} if the set is not one of the enclosures of the target
+     */
+    public static BoardGame.CaptureResult rule(int target, long lo, long hi) {
+        if (lo == Position.orthogonalNeighbors(target, 0) && hi == Position.orthogonalNeighbors(target, 1)) {
+            return RULES[target];
+        } else if (lo == Position.diagonalNeighbors(target, 0) && hi == Position.diagonalNeighbors(target, 1) && Long.bitCount(lo) + Long.bitCount(hi) == 4) {
+            return BoardGame.CaptureResult.FOUR_SIDED_SIEGE;
+        }
+        return null;
+    }
+
+    /**
+     * Lists the sieges of one target, the orthogonal enclosure first.
+     *
+     * @param position The position to look at
+     * @param color    The besieging color
+     * @param target   The square of a piece of the other color
+     * @param captures The buffer the captures are written to, encoded by {@link Capture}
+     * @param count    The number of captures already in the buffer
+     * @return The number of captures in the buffer
+     */
+    public static int generate(Position position, Piece.Color color, int target, long[] captures, int count) {
+        int enclosures = enclosures(position, color, target);
+        while (enclosures != 0) {
+            int enclosure = Integer.lowestOneBit(enclosures);
+            enclosures &= enclosures - 1;
+            long capture = Capture.encode(rule(target, enclosure), target, -1);
+            for (int half = 0; half < 2; half++) {
+                long squares = capturers(target, enclosure, half);
+                while (squares != 0) {
+                    capture = Capture.withCapturer(capture, half << 6 | Long.numberOfTrailingZeros(squares));
+                    squares &= squares - 1;
+                }
+            }
+            captures[count++] = capture;
+        }
+        return count;
+    }
+}
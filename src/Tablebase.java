@@ -0,0 +1,351 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Endgame tablebase written by {@link TablebaseGenerator}: the exact result of every placement of a fixed set of pieces
+ * when both colors are one capture away from winning, so that the first capture decides the game.
+ * <p>
+ * The material is written as the {@link BoardNotation} tokens of the black pieces, then a {@code /}, then the tokens of
+ * the white pieces, each side sorted, for example {@code c9,t25/S49}. A placement of the pieces, in that order, is
+ * numbered by giving each piece the rank of its square among the squares not taken by the pieces before it, so the
+ * placements of {@code n} pieces are numbered from 0 to 128 &times; 127 &times; ... &times; (128 - n + 1) - 1.
+ * <p>
+ * The file starts with the magic number {@code RTBS}, the format version (4 bytes), the length of the material
+ * (4 bytes) and the material in UTF-8, padded to a multiple of 8 bytes. One byte per placement follows for black to
+ * move, then one byte per placement for white to move: 0 for a draw, or the number of turns left in the game with
+ * perfect play, counting the turn of the color to move, which is odd when the color to move wins and even when it
+ * loses. The values are read from a memory-mapped file, so a tablebase takes no heap beyond its header.
+ */
+public class Tablebase implements Closeable {
+    public static final int DRAW = 0;
+
+    static final int MAGIC = 'R' | 'T' << 8 | 'B' << 16 | 'S' << 24;
+    static final int VERSION = 1;
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final String material;
+    private final String[] tokens;
+    private final int blackPieces;
+    private final long placements;
+    private final int[] squares;
+
+    /**
+     * Opens a tablebase file for probing.
+     *
+     * @param path The tablebase file
+     * @throws IOException If the file cannot be mapped or is not a tablebase
+     */
+    public Tablebase(Path path) throws IOException {
+        this(path, false);
+    }
+
+    /**
+     * Opens a tablebase file, read-only for probing or writable for {@link TablebaseGenerator}.
+     *
+     * @param path     The tablebase file
+     * @param writable {@code true} to map the values for writing
+     * @throws IOException If the file cannot be mapped or is not a tablebase
+     */
+    Tablebase(Path path, boolean writable) throws IOException {
+        this.channel = writable ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE) : FileChannel.open(path, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) != 12 || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a tablebase: " + path);
+        }
+        ByteBuffer text = ByteBuffer.allocate(header.getInt(8));
+        channel.read(text, 12);
+        this.material = new String(text.array(), StandardCharsets.UTF_8);
+        this.tokens = tokens(material);
+        this.blackPieces = split(material.substring(0, material.indexOf('/'))).length;
+        this.placements = placements(tokens.length);
+        this.squares = new int[tokens.length];
+        long start = headerBytes(material);
+        if (channel.size() != start + 2 * placements) {
+            channel.close();
+            throw new IOException("Truncated tablebase: " + path);
+        }
+        this.segments = new MappedByteBuffer[(int) ((2 * placements + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT)];
+        for (int segment = 0; segment < segments.length; segment++) {
+            long first = (long) segment << SEGMENT_SHIFT;
+            long bytes = Math.min(SEGMENT_BYTES, 2 * placements - first);
+            segments[segment] = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, start + first, bytes);
+        }
+    }
+
+    /**
+     * Get the material of the pieces on a board in the form tablebases are named by.
+     *
+     * @param board The board to look at
+     * @return The sorted tokens of the black pieces and of the white pieces, separated by {@code /}
+     */
+    public static String material(Board board) {
+        List<String> black = new ArrayList<>();
+        List<String> white = new ArrayList<>();
+        Position position = board.getPosition();
+        for (int square = 0; square < Position.SQUARES; square++) {
+            Piece piece = position.get(square);
+            if (piece != null) {
+                (piece.getColor() == Piece.Color.BLACK ? black : white).add(BoardNotation.formatPiece(piece));
+            }
+        }
+        black.sort(null);
+        white.sort(null);
+        return String.join(",", black) + "/" + String.join(",", white);
+    }
+
+    /**
+     * Sort the pieces of each side of a material, so that the same pieces always give the same material.
+     *
+     * @param material The material, with the pieces of each side in any order
+     * @return The material as returned by {@link #material(Board)}
+     */
+    static String canonical(String material) {
+        int separator = material.indexOf('/');
+        if (separator < 0) {
+            throw new IllegalArgumentException("The material must separate black and white pieces with /: " + material);
+        }
+        String[] black = split(material.substring(0, separator));
+        String[] white = split(material.substring(separator + 1));
+        Arrays.sort(black);
+        Arrays.sort(white);
+        return String.join(",", black) + "/" + String.join(",", white);
+    }
+
+    /**
+     * Split a material into the tokens of its pieces in tablebase order: black pieces first, each side sorted.
+     *
+     * @param material The material, with the pieces of each side in any order
+     * @return The tokens of the pieces
+     */
+    static String[] tokens(String material) {
+        return Arrays.stream(canonical(material).split("[,/]")).filter(token -> !token.isEmpty()).toArray(String[]::new);
+    }
+
+    private static String[] split(String side) {
+        return side.isEmpty() ? new String[0] : side.split(",");
+    }
+
+    /**
+     * Get the number of placements of {@code pieces} pieces on distinct squares.
+     *
+     * @param pieces The number of pieces
+     * @return 128 &times; 127 &times; ... &times; (128 - pieces + 1)
+     */
+    static long placements(int pieces) {
+        long placements = 1;
+        for (int piece = 0; piece < pieces; piece++) {
+            placements *= Position.SQUARES - piece;
+        }
+        return placements;
+    }
+
+    static long headerBytes(String material) {
+        return 12 + (material.getBytes(StandardCharsets.UTF_8).length + 7 & ~7);
+    }
+
+    /**
+     * Number a placement of pieces.
+     *
+     * @param squares The squares of the pieces, in tablebase order
+     * @param count   The number of pieces
+     * @return The number of the placement
+     */
+    static long placement(int[] squares, int count) {
+        long placement = 0;
+        for (int piece = 0; piece < count; piece++) {
+            int rank = squares[piece];
+            for (int before = 0; before < piece; before++) {
+                if (squares[before] < squares[piece]) {
+                    rank--;
+                }
+            }
+            placement = placement * (Position.SQUARES - piece) + rank;
+        }
+        return placement;
+    }
+
+    /**
+     * Find the squares of a numbered placement, the inverse of {@link #placement(int[], int)}.
+     *
+     * @param placement The number of the placement
+     * @param squares   The array the squares are written to, in tablebase order
+     * @param count     The number of pieces
+     */
+    static void squares(long placement, int[] squares, int count) {
+        for (int piece = count - 1; piece >= 0; piece--) {
+            squares[piece] = (int) (placement % (Position.SQUARES - piece));
+            placement /= Position.SQUARES - piece;
+        }
+        for (int piece = 1; piece < count; piece++) {
+            // Turn the rank into a square by skipping the taken squares in increasing order
+            int square = squares[piece];
+            long skipped = 0;
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int before = 0; before < piece; before++) {
+                    if (squares[before] <= square && (skipped & 1L << before) == 0) {
+                        skipped |= 1L << before;
+                        square++;
+                        changed = true;
+                    }
+                }
+            }
+            squares[piece] = square;
+        }
+    }
+
+    public String getMaterial() {
+        return material;
+    }
+
+    /**
+     * Get the number of pieces of one color.
+     *
+     * @param color The color of the pieces
+     * @return The number of pieces of that color in the material
+     */
+    public int getPieces(Piece.Color color) {
+        return color == Piece.Color.BLACK ? blackPieces : tokens.length - blackPieces;
+    }
+
+    /**
+     * Get the number of placements, which is the number of entries for each color to move.
+     *
+     * @return The number of placements of the pieces
+     */
+    public long getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Check whether a board can be probed: it must hold exactly the pieces of the tablebase, and both colors must be
+     * one capture away from winning.
+     *
+     * @param board The board to check
+     * @return {@code true} if {@link #probe(Board, Piece.Color)} can be called
+     */
+    public boolean covers(Board board) {
+        return board.getWinner() == null && board.getWinCon() - board.getCaptures(Piece.Color.BLACK) == 1 && board.getWinCon() - board.getCaptures(Piece.Color.WHITE) == 1 && material(board).equals(material);
+    }
+
+    /**
+     * Look up the result of a board covered by this tablebase.
+     *
+     * @param board      The board to look up, for which {@link #covers(Board)} is {@code true}
+     * @param sideToMove The color to move
+     * @return {@link #DRAW}, or the number of turns left, odd if the color to move wins and even if it loses
+     */
+    public synchronized int probe(Board board, Piece.Color sideToMove) {
+        Position position = board.getPosition();
+        long taken = 0;
+        for (int square = 0; square < Position.SQUARES; square++) {
+            Piece piece = position.get(square);
+            if (piece == null) {
+                continue;
+            }
+            String token = BoardNotation.formatPiece(piece);
+            int slot = 0;
+            while (!tokens[slot].equals(token) || (taken & 1L << slot) != 0) {
+                slot++;
+            }
+            taken |= 1L << slot;
+            squares[slot] = square;
+        }
+        return this.get(sideToMove, placement(squares, tokens.length));
+    }
+
+    /**
+     * Choose the ply with the best result: the fastest win, the slowest loss, or a ply that keeps the draw.
+     *
+     * @param board      The board to play on, for which {@link #covers(Board)} is {@code true}; it is left as it was found
+     * @param sideToMove The color to move
+     * @param generator  The generator to list the plies with
+     * @return The chosen ply encoded by {@link Ply}, or 0 if the color to move has no ply
+     */
+    public long bestPly(Board board, Piece.Color sideToMove, PlyGenerator generator) {
+        int count = generator.generate(board, sideToMove);
+        long[] plies = generator.getPlies();
+        if (count == 0 || Ply.capture(plies[0]) != 0) {
+            // Captures come first, and any capture wins
+            return count == 0 ? 0 : plies[0];
+        }
+        long best = plies[0];
+        int bestRank = Integer.MIN_VALUE;
+        for (int index = 0; index < count; index++) {
+            Ply.make(board, plies[index]);
+            int reply = this.probe(board, sideToMove.opposite());
+            Ply.unmake(board, plies[index]);
+            int rank = rank(reply);
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = plies[index];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Order the results of the opponent from the worst to the best for the color that leads to them.
+     */
+    private static int rank(int reply) {
+        if (reply == DRAW) {
+            return 0;
+        }
+        return isWin(reply) ? reply - 256 : 256 - reply;
+    }
+
+    /**
+     * Check whether a probed value wins for the color to move.
+     *
+     * @param value A value returned by {@link #probe(Board, Piece.Color)}
+     * @return {@code true} if the color to move wins with perfect play
+     */
+    public static boolean isWin(int value) {
+        return (value & 1) != 0;
+    }
+
+    int get(Piece.Color sideToMove, long placement) {
+        long entry = this.entry(sideToMove, placement);
+        return Byte.toUnsignedInt(segments[(int) (entry >>> SEGMENT_SHIFT)].get((int) (entry & (SEGMENT_BYTES - 1))));
+    }
+
+    void set(Piece.Color sideToMove, long placement, int value) {
+        long entry = this.entry(sideToMove, placement);
+        segments[(int) (entry >>> SEGMENT_SHIFT)].put((int) (entry & (SEGMENT_BYTES - 1)), (byte) value);
+    }
+
+    /**
+     * Get the offset of an entry among the values, black to move first as the file format says, whatever the order of
+     * {@link Piece.Color}.
+     */
+    private long entry(Piece.Color sideToMove, long placement) {
+        return (sideToMove == Piece.Color.BLACK ? 0 : placements) + placement;
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,235 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+/**
+ * Solves the endgames of a fixed set of pieces where both colors are one capture away from winning, and writes the
+ * results as a {@link Tablebase}.
+ * <p>
+ * The first pass marks the placements where the color to move can capture this turn as won in 1. Every later pass
+ * {@code n} looks at the placements still unsolved: when {@code n} is odd, a placement is won in {@code n} if a move
+ * leads to a placement lost in {@code n - 1} for the opponent; when {@code n} is even, it is lost in {@code n} if
+ * every move leads to a placement won by the opponent. The passes stop when one solves nothing, and whatever is left
+ * is a draw. Each pass reads only values written by earlier passes, so the placements of a pass are split between
+ * threads without any locking, and the results do not depend on the number of threads.
+ * <p>
+ * Usage: {@code java TablebaseGenerator [--threads N] --out FILE MATERIAL}, where the material is written as described
+ * in {@link Tablebase}, for example {@code c9,t25/S49}.
+ */
+public class TablebaseGenerator {
+    /**
+     * The longest distance a tablebase can store; placements that need more turns are left as draws.
+     */
+    public static final int MAX_DISTANCE = 255;
+
+    private static final int CHUNK_PLACEMENTS = 4096;
+    private static final Piece.Color[] COLORS = Piece.Color.values();
+
+    private TablebaseGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = null;
+        String material = null;
+        for (int arg = 0; arg < args.length; arg++) {
+            switch (args[arg]) {
+                case "--threads" -> threads = Integer.parseInt(args[++arg]);
+                case "--out" -> out = Path.of(args[++arg]);
+                default -> material = args[arg];
+            }
+        }
+        if (out == null || material == null) {
+            System.out.println("Usage: java TablebaseGenerator [--threads N] --out FILE MATERIAL");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        long[] counts = generate(material, out, threads);
+        System.out.printf("Solved %s in %.1f s%n", material, (System.nanoTime() - start) / 1e9);
+        System.out.println("  draws  " + counts[Tablebase.DRAW]);
+        for (int distance = 1; distance < counts.length; distance++) {
+            if (counts[distance] > 0) {
+                System.out.println("  " + (Tablebase.isWin(distance) ? "win  " : "loss ") + distance + " " + counts[distance]);
+            }
+        }
+    }
+
+    /**
+     * Solves a material and writes its tablebase.
+     *
+     * @param material The pieces of the tablebase, as described in {@link Tablebase}
+     * @param out      The tablebase file to create or replace
+     * @param threads  The number of worker threads
+     * @return The number of entries of each value, indexed by value, for both colors to move together
+     * @throws IOException If the file cannot be written
+     */
+    public static long[] generate(String material, Path out, int threads) throws IOException, InterruptedException, ExecutionException {
+        String[] tokens = Tablebase.tokens(material);
+        for (String token : tokens) {
+            BoardNotation.parsePiece(token);
+        }
+        createFile(out, Tablebase.canonical(material), Tablebase.placements(tokens.length));
+        long[] counts = new long[MAX_DISTANCE + 1];
+        try (Tablebase tablebase = new Tablebase(out, true)) {
+            long placements = tablebase.getPlacements();
+            long chunks = (placements + CHUNK_PLACEMENTS - 1) / CHUNK_PLACEMENTS;
+            ThreadLocal<Worker> workers = ThreadLocal.withInitial(() -> new Worker(tablebase, tokens));
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long solved = 2 * placements;
+                for (int distance = 1; distance <= MAX_DISTANCE && solved > 0; distance++) {
+                    int pass = distance;
+                    solved = pool.submit(() -> LongStream.range(0, chunks).parallel()
+                            .map(chunk -> workers.get().pass(pass, chunk * CHUNK_PLACEMENTS, Math.min(placements, (chunk + 1) * CHUNK_PLACEMENTS)))
+                            .sum()).get();
+                    counts[distance] = solved;
+                }
+            } finally {
+                pool.shutdown();
+            }
+            tablebase.force();
+            counts[Tablebase.DRAW] = 2 * placements;
+            for (int distance = 1; distance <= MAX_DISTANCE; distance++) {
+                counts[Tablebase.DRAW] -= counts[distance];
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Writes the header and sizes the file, leaving every value at 0.
+     */
+    private static void createFile(Path out, String material, long placements) throws IOException {
+        byte[] text = material.getBytes(StandardCharsets.UTF_8);
+        long headerBytes = Tablebase.headerBytes(material);
+        ByteBuffer header = ByteBuffer.allocate((int) headerBytes).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(Tablebase.MAGIC).putInt(Tablebase.VERSION).putInt(text.length).put(text);
+        header.clear();
+        try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.write(ByteBuffer.allocate(1), headerBytes + 2 * placements - 1);
+        }
+    }
+
+    /**
+     * The board and buffers of one generating thread. The pieces are moved between placements directly on the
+     * {@link Position}, since the board never has anything to undo between two placements.
+     */
+    private static final class Worker {
+        private final Tablebase tablebase;
+        private final Piece[] pieces;
+        private final int[] squares;
+        private final Board board;
+        private final int[] moves = new int[Move.MAX_MOVES];
+        private final long[] captures = new long[CaptureGenerator.MAX_CAPTURES];
+
+        private Worker(Tablebase tablebase, String[] tokens) {
+            this.tablebase = tablebase;
+            this.pieces = new Piece[tokens.length];
+            this.squares = new int[tokens.length];
+            this.board = new Board(1, new Piece[Position.ROWS][Position.COLUMNS]);
+            Tablebase.squares(0, squares, tokens.length);
+            for (int piece = 0; piece < tokens.length; piece++) {
+                pieces[piece] = BoardNotation.parsePiece(tokens[piece]);
+                board.getPosition().put(squares[piece], pieces[piece]);
+            }
+        }
+
+        /**
+         * Solves what can be solved at one distance in a range of placements.
+         *
+         * @return The number of entries solved
+         */
+        private long pass(int distance, long first, long last) {
+            long solved = 0;
+            for (long placement = first; placement < last; placement++) {
+                boolean placed = false;
+                for (Piece.Color color : COLORS) {
+                    if (tablebase.get(color, placement) != Tablebase.DRAW) {
+                        continue;
+                    }
+                    if (!placed) {
+                        this.place(placement);
+                        placed = true;
+                    }
+                    boolean result = distance == 1 ? this.canCapture(color) : this.solves(color, placement, distance);
+                    if (result) {
+                        tablebase.set(color, placement, distance);
+                        solved++;
+                    }
+                }
+            }
+            return solved;
+        }
+
+        private void place(long placement) {
+            Position position = board.getPosition();
+            for (int piece = 0; piece < pieces.length; piece++) {
+                position.remove(squares[piece]);
+            }
+            Tablebase.squares(placement, squares, pieces.length);
+            for (int piece = 0; piece < pieces.length; piece++) {
+                position.put(squares[piece], pieces[piece]);
+            }
+        }
+
+        /**
+         * Check whether a color can capture this turn, after a move or without moving when it has none.
+         */
+        private boolean canCapture(Piece.Color color) {
+            int count = board.generateMoves(color, moves);
+            if (count == 0) {
+                return board.enumerateCaptures(color, captures) > 0;
+            }
+            for (int index = 0; index < count; index++) {
+                board.makeMove(moves[index]);
+                int captureCount = board.enumerateCaptures(color, captures);
+                board.unmakeMove();
+                if (captureCount > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Check whether an unsolved entry is won (odd distance) or lost (even distance) in exactly {@code distance}
+         * turns, from the values of the placements its moves lead to.
+         */
+        private boolean solves(Piece.Color color, long placement, int distance) {
+            boolean winning = Tablebase.isWin(distance);
+            Piece.Color opponent = color.opposite();
+            int count = board.generateMoves(color, moves);
+            if (count == 0) {
+                // Without a move or a capture the turn passes
+                int reply = tablebase.get(opponent, placement);
+                return winning ? reply == distance - 1 : Tablebase.isWin(reply);
+            }
+            for (int index = 0; index < count; index++) {
+                int from = Move.from(moves[index]);
+                int piece = 0;
+                while (squares[piece] != from) {
+                    piece++;
+                }
+                squares[piece] = Move.to(moves[index]);
+                int reply = tablebase.get(opponent, Tablebase.placement(squares, pieces.length));
+                squares[piece] = from;
+                if (winning && reply == distance - 1) {
+                    return true;
+                } else if (!winning && !Tablebase.isWin(reply)) {
+                    return false;
+                }
+            }
+            return !winning;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table stored in a single {@code long[]}.
+ * Each entry takes three longs: a check word, the packed search data and the best move. The check word is the Zobrist
+ * key XORed with the other two words, so an entry torn by concurrent writers fails the check and reads as a miss, and
+ * no locking is needed. Entries are grouped in buckets of two: the first slot keeps the deepest result of the current
+ * search, the second slot always takes the newest one.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+
+    /**
+     * Returned by {@link #probe(long)} when the position is not in the table.
+     */
+    public static final long MISS = 0;
+
+    private static final int ENTRY_LONGS = 3;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    private static final long VALID = 1L << 40;
+
+    private final long[] table;
+    private final int bucketMask;
+    private int generation;
+
+    /**
+     * Creates a table using about {@code megabytes} of memory, rounded down to a power of two of buckets.
+     *
+     * @param megabytes The memory budget of the table
+     */
+    public TranspositionTable(int megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1, (long) megabytes * 1024 * 1024 / (BUCKET_LONGS * Long.BYTES)));
+        buckets = Math.min(buckets, Integer.highestOneBit(Integer.MAX_VALUE / BUCKET_LONGS));
+        this.table = new long[(int) buckets * BUCKET_LONGS];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so that entries of older searches become the first to be replaced.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * Look up a position.
+     *
+     * @param key The Zobrist key of the position
+     * @return The packed data of the entry, or {@link #MISS}; decode it with the static accessors
+     */
+    public long probe(long key) {
+        int bucket = this.bucket(key);
+        for (int slot = bucket; slot < bucket + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table[slot + 1];
+            long move = table[slot + 2];
+            if ((table[slot] ^ data ^ move) == key && data != 0) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Look up the best move stored with a position.
+     *
+     * @param key The Zobrist key of the position
+     * @return The stored move, or 0 if the position is not in the table
+     */
+    public long probeMove(long key) {
+        int bucket = this.bucket(key);
+        for (int slot = bucket; slot < bucket + BUCKET_LONGS; slot += ENTRY_LONGS) {
+            long data = table[slot + 1];
+            long move = table[slot + 2];
+            if ((table[slot] ^ data ^ move) == key && data != 0) {
+                return move;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the result of a search.
+     *
+     * @param key   The Zobrist key of the position
+     * @param move  The best move found, in whatever encoding the caller uses
+     * @param score The score of the position, between {@link Short#MIN_VALUE} and {@link Short#MAX_VALUE}
+     * @param depth The depth the position was searched to, between 0 and 255
+     * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+     */
+    public void store(long key, long move, int score, int depth, int bound) {
+        int bucket = this.bucket(key);
+        long data = VALID | (long) generation << 32 | (long) bound << 24 | (long) depth << 16 | (score & 0xFFFF);
+        int slot = bucket + ENTRY_LONGS;
+        long deepData = table[bucket + 1];
+        boolean sameKey = (table[bucket] ^ deepData ^ table[bucket + 2]) == key;
+        if (sameKey || deepData == 0 || depth >= depth(deepData) || generation(deepData) != generation) {
+            slot = bucket;
+        }
+        table[slot] = key ^ data ^ move;
+        table[slot + 1] = data;
+        table[slot + 2] = move;
+    }
+
+    private int bucket(long key) {
+        return ((int) (key ^ key >>> 32) & bucketMask) * BUCKET_LONGS;
+    }
+
+    public static int score(long data) {
+        return (short) data;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 16 & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 24 & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 32 & 0xFF);
+    }
+}
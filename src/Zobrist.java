@@ -0,0 +1,85 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of board states.
+ * A piece contributes the key of its (square, shape, color) and the key of its (square, number); a {@link Perfecta}
+ * also contributes one key per remaining component. Keys combine with XOR, so adding and removing a piece are the
+ * same operation and a hash can be kept up to date as the board changes.
+ */
+public class Zobrist {
+    /**
+     * XORed into the hash of a board by search code to tell apart the two sides to move.
+     */
+    public static final long SIDE_TO_MOVE;
+
+    private static final int NUMBERS = CaptureTable.NUMBERS.length;
+    private static final int MAX_COUNTED_CAPTURES = 64;
+    private static final long[] PIECE_KINDS = new long[Position.SQUARES * 8];
+    private static final long[] PIECE_NUMBERS = new long[Position.SQUARES * (NUMBERS + 1)];
+    private static final long[] PERFECTA_COMPONENTS = new long[2 * NUMBERS];
+    private static final long[] CAPTURES = new long[2 * MAX_COUNTED_CAPTURES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5249544DL);
+        SIDE_TO_MOVE = random.nextLong();
+        fill(PIECE_KINDS, random);
+        fill(PIECE_NUMBERS, random);
+        fill(PERFECTA_COMPONENTS, random);
+        fill(CAPTURES, random);
+    }
+
+    private Zobrist() {
+    }
+
+    private static void fill(long[] keys, SplittableRandom random) {
+        for (int key = 0; key < keys.length; key++) {
+            keys[key] = random.nextLong();
+        }
+    }
+
+    /**
+     * Get the key of a piece standing on a square.
+     *
+     * @param square The square the piece stands on
+     * @param piece  The piece
+     * @return The key to XOR into the hash when the piece is added or removed
+     */
+    public static long piece(int square, Piece piece) {
+        long key = PIECE_KINDS[square << 3 | piece.getShape().ordinal() << 1 | piece.getColor().ordinal()];
+        int index = CaptureTable.index(piece.getNumber());
+        if (index >= 0) {
+            key ^= PIECE_NUMBERS[square * (NUMBERS + 1) + index];
+        } else {
+            key ^= mix(PIECE_NUMBERS[square * (NUMBERS + 1) + NUMBERS] + piece.getNumber());
+        }
+        if (piece.getShape() == Piece.Shape.PERFECTA) {
+            long components = CaptureTable.numbers(piece);
+            int color = piece.getColor().ordinal() * NUMBERS;
+            while (components != 0) {
+                key ^= Long.rotateLeft(PERFECTA_COMPONENTS[color + Long.numberOfTrailingZeros(components)], square);
+                components &= components - 1;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Get the key of a capture counter.
+     *
+     * @param color    The color that made the captures
+     * @param captures The number of captures made
+     * @return The key to XOR into the hash
+     */
+    public static long captures(Piece.Color color, int captures) {
+        if (captures < MAX_COUNTED_CAPTURES) {
+            return CAPTURES[color.ordinal() * MAX_COUNTED_CAPTURES + captures];
+        }
+        return mix(CAPTURES[color.ordinal() * MAX_COUNTED_CAPTURES] + captures);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ value >>> 30) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ value >>> 27) * 0x94D049BB133111EBL;
+        return value ^ value >>> 31;
+    }
+}